@@ -0,0 +1,62 @@
+package com.perfect.IndiExport.config;
+
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+// The authenticated user as read from the JWT claims - the principal of both HTTP requests
+// and WebSocket sessions. getName() is the email, which is also the key for user destinations (/user/...).
+@Getter
+@AllArgsConstructor
+public class AuthPrincipal implements Principal {
+
+    private final Long id;
+    private final String email;
+    private final Role role;
+    private final String displayName;
+
+    public static AuthPrincipal of(User user) {
+        return new AuthPrincipal(user.getId(), user.getEmail(), user.getRole(), user.getName());
+    }
+
+    // Null for tokens issued before the id and role were added to the claims
+    public static AuthPrincipal fromClaims(Claims claims) {
+        Object id = claims.get(JwtUtil.CLAIM_USER_ID);
+        Object role = claims.get(JwtUtil.CLAIM_ROLE);
+        if (!(id instanceof Number) || role == null) {
+            return null;
+        }
+        return new AuthPrincipal(((Number) id).longValue(), claims.getSubject(),
+                Role.valueOf(role.toString()), claims.get(JwtUtil.CLAIM_NAME, String.class));
+    }
+
+    public List<SimpleGrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isSeller() {
+        return role.name().contains("SELLER");
+    }
+
+    // Detached snapshot for service calls that take a User - built without touching the database
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setName(displayName);
+        return user;
+    }
+}
@@ -0,0 +1,15 @@
+package com.perfect.IndiExport.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Injects the authenticated user into a controller method, as an AuthPrincipal or a User.
+// The User is a detached snapshot built from the token (id, email, role, name) unless
+// load = true, which fetches the managed entity for handlers that modify the user.
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+    boolean load() default false;
+}
@@ -4,6 +4,7 @@ import com.perfect.IndiExport.repository.InquiryRepository;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class DataInitializer {
 
     private final InquiryRepository inquiryRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     @PostConstruct
     @Transactional
@@ -24,5 +26,23 @@ public class DataInitializer {
         } catch (Exception e) {
             log.error("Error during data migration: ", e);
         }
+
+        // Read state moved from chat_messages.is_read to per-participant cursors on chat_rooms.
+        // Rooms from before the move get cursors at the newest message each side had read;
+        // the partial index on unread messages is no longer used.
+        try {
+            int migrated = jdbcTemplate.update("UPDATE chat_rooms r SET " +
+                    "buyer_last_read_message_id = COALESCE((SELECT MAX(m.id) FROM chat_messages m " +
+                    "WHERE m.chat_room_id = r.id AND m.sender_type = 'SELLER' AND m.is_read = true), 0), " +
+                    "seller_last_read_message_id = COALESCE((SELECT MAX(m.id) FROM chat_messages m " +
+                    "WHERE m.chat_room_id = r.id AND m.sender_type = 'BUYER' AND m.is_read = true), 0) " +
+                    "WHERE r.buyer_last_read_message_id IS NULL OR r.seller_last_read_message_id IS NULL");
+            if (migrated > 0) {
+                log.info("Initialized chat read cursors for {} rooms", migrated);
+            }
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_chat_messages_unread");
+        } catch (Exception e) {
+            log.error("Error initializing chat read cursors: ", e);
+        }
     }
 }
@@ -1,7 +1,8 @@
 package com.perfect.IndiExport.config;
 
-import com.perfect.IndiExport.service.CustomUserDetailsService;
+import com.perfect.IndiExport.service.UserPrincipalCache;
 import com.perfect.IndiExport.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,7 +21,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private UserPrincipalCache userCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -40,13 +41,19 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                String username = jwtUtil.extractUsername(token);
+                Claims claims = jwtUtil.parseClaims(token);
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    var userDetails = userDetailsService.loadUserByUsername(username);
+                if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    // Current role and status come from the user cache, not the login-time claims.
+                    // Tokens issued before the id claim was added are resolved by email.
+                    AuthPrincipal claimed = AuthPrincipal.fromClaims(claims);
+                    AuthPrincipal principal = (claimed != null
+                            ? userCache.findById(claimed.getId())
+                            : userCache.findByEmail(claims.getSubject()))
+                            .orElseThrow(() -> new RuntimeException("User not found or inactive"));
 
                     var auth = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
+                            principal, null, principal.getAuthorities());
 
                     auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(auth);
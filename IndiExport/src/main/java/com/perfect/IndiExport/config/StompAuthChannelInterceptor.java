@@ -0,0 +1,115 @@
+package com.perfect.IndiExport.config;
+
+import com.perfect.IndiExport.service.ChatService;
+import com.perfect.IndiExport.service.UserPrincipalCache;
+import com.perfect.IndiExport.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Authenticates a STOMP session once, on CONNECT, from the same Bearer token the REST API uses.
+// The principal is stored on the session, so later SEND and SUBSCRIBE frames carry it for free.
+// Chat room topics (messages, receipts and presence all go to /topic/chat/{roomId}) and typing
+// frames are limited to the room's buyer and seller; membership is checked once per session and
+// room and remembered on the session. Subscriptions outside chat rooms and /user queues are refused,
+// and clients may only SEND to application destinations: the brokers would otherwise accept a frame
+// sent straight to /topic/chat/{roomId} and fan it out as if the server had published it.
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String VERIFIED_ROOMS_ATTRIBUTE = "chat.verifiedRooms";
+    private static final Pattern ROOM_TOPIC = Pattern.compile("^/topic/chat/(\\d+)$");
+    private static final Pattern ROOM_TYPING = Pattern.compile("^/app/chat/(\\d+)/typing$");
+    private static final String USER_QUEUE_PREFIX = "/user/queue/";
+    private static final String APP_PREFIX = "/app/";
+
+    private final JwtUtil jwtUtil;
+    private final UserPrincipalCache userCache;
+    private final ChatService chatService;
+
+    // ChatService needs the messaging template, which is built from the config this interceptor is part of
+    public StompAuthChannelInterceptor(JwtUtil jwtUtil, UserPrincipalCache userCache, @Lazy ChatService chatService) {
+        this.jwtUtil = jwtUtil;
+        this.userCache = userCache;
+        this.chatService = chatService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String header = accessor.getFirstNativeHeader("Authorization");
+            if (header == null || !header.startsWith("Bearer ")) {
+                throw new RuntimeException("Missing token");
+            }
+            Claims claims;
+            try {
+                claims = jwtUtil.parseClaims(header.substring(7));
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid token");
+            }
+            // Same resolution as JwtAuthFilter: current role and status, by id or by email for old tokens
+            AuthPrincipal claimed = AuthPrincipal.fromClaims(claims);
+            AuthPrincipal principal = (claimed != null
+                    ? userCache.findById(claimed.getId())
+                    : userCache.findByEmail(claims.getSubject()))
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            accessor.setUser(principal);
+        } else if (StompCommand.SEND.equals(accessor.getCommand())
+                || StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            if (!(accessor.getUser() instanceof AuthPrincipal principal)) {
+                throw new RuntimeException("Not authenticated");
+            }
+            String destination = accessor.getDestination() != null ? accessor.getDestination() : "";
+            if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+                checkSubscription(principal, destination, accessor);
+            } else {
+                if (!destination.startsWith(APP_PREFIX)) {
+                    throw new RuntimeException("Send not allowed");
+                }
+                Matcher typing = ROOM_TYPING.matcher(destination);
+                if (typing.matches()) {
+                    verifyRoomMember(principal, Long.valueOf(typing.group(1)), accessor);
+                }
+            }
+        }
+        return message;
+    }
+
+    private void checkSubscription(AuthPrincipal principal, String destination, StompHeaderAccessor accessor) {
+        Matcher room = ROOM_TOPIC.matcher(destination);
+        if (room.matches()) {
+            verifyRoomMember(principal, Long.valueOf(room.group(1)), accessor);
+        } else if (!destination.startsWith(USER_QUEUE_PREFIX)) {
+            throw new RuntimeException("Subscription not allowed");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyRoomMember(AuthPrincipal principal, Long roomId, StompHeaderAccessor accessor) {
+        Map<String, Object> session = accessor.getSessionAttributes();
+        Set<Long> verifiedRooms = session != null
+                ? (Set<Long>) session.computeIfAbsent(VERIFIED_ROOMS_ATTRIBUTE, key -> ConcurrentHashMap.newKeySet())
+                : ConcurrentHashMap.newKeySet();
+        if (!verifiedRooms.contains(roomId)) {
+            chatService.verifyParticipant(principal.toUser(), roomId);
+            verifiedRooms.add(roomId);
+        }
+    }
+}
@@ -1,59 +1,63 @@
 package com.perfect.IndiExport.controller;
 
 import com.perfect.IndiExport.dto.LoginRequest;
-import com.perfect.IndiExport.dto.LoginResponse;
 import com.perfect.IndiExport.dto.RegisterRequest;
 import com.perfect.IndiExport.entity.Role;
 import com.perfect.IndiExport.entity.User;
 import com.perfect.IndiExport.repository.UserRepository;
-import com.perfect.IndiExport.util.JwtUtil;
+import com.perfect.IndiExport.service.LoginService;
+import com.perfect.IndiExport.service.UserChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.security.authentication.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private LoginService loginService;
 
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private ApplicationEventPublisher eventPublisher;
 
 
     // ---------------- LOGIN ----------------
+    // The password check runs on LoginService's pool; the servlet thread is released meanwhile
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
 
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(), request.getPassword())
-            );
-
-            User user = userRepository.findByEmail(request.getEmail()).get();
-
-            String token = jwtUtil.generateToken(
-                    user.getEmail(), user.getRole().name());
-
-            return ResponseEntity.ok(
-                    new LoginResponse(token, user.getRole().name())
-            );
-
-        } catch (BadCredentialsException e) {
-            return ResponseEntity
-                    .status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid email or password");
+            return loginService.login(request)
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        if (cause instanceof BadCredentialsException) {
+                            return ResponseEntity
+                                    .status(HttpStatus.UNAUTHORIZED)
+                                    .body("Invalid email or password");
+                        }
+                        throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+                    });
+
+        } catch (LoginService.LoginBusyException e) {
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage()));
         }
     }
 
@@ -86,6 +90,7 @@ public class AuthController {
         user.setStatus("ACTIVE");
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
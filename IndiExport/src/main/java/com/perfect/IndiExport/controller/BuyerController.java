@@ -1,14 +1,13 @@
 package com.perfect.IndiExport.controller;
 
+import com.perfect.IndiExport.config.CurrentUser;
 import com.perfect.IndiExport.dto.BuyerProfileDto;
 import com.perfect.IndiExport.entity.Buyer;
 import com.perfect.IndiExport.entity.User;
-import com.perfect.IndiExport.repository.UserRepository;
 import com.perfect.IndiExport.service.BuyerService;
+import com.perfect.IndiExport.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,14 +16,11 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin
 public class BuyerController {
 
-    private final UserRepository userRepository;
     private final BuyerService buyerService;
+    private final JwtUtil jwtUtil;
 
     @GetMapping("/profile")
-    public ResponseEntity<Buyer> getProfile(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<Buyer> getProfile(@CurrentUser User user) {
         Buyer buyer = buyerService.getBuyerProfile(user);
         return ResponseEntity.ok(buyer);
     }
@@ -32,23 +28,23 @@ public class BuyerController {
     @PostMapping("/profile")
     public ResponseEntity<Buyer> createOrUpdateProfile(
             @RequestBody BuyerProfileDto dto,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser(load = true) User user) {
         Buyer buyer = buyerService.createOrUpdateBuyerProfile(user, dto);
-        return ResponseEntity.ok(buyer);
+        // The name claim changes with the profile
+        return ResponseEntity.ok()
+                .header(JwtUtil.REFRESHED_TOKEN_HEADER, jwtUtil.generateToken(user))
+                .body(buyer);
     }
 
     @PutMapping("/profile")
     public ResponseEntity<Buyer> updateProfile(
             @RequestBody BuyerProfileDto dto,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser(load = true) User user) {
         Buyer buyer = buyerService.createOrUpdateBuyerProfile(user, dto);
-        return ResponseEntity.ok(buyer);
+        // The name claim changes with the profile
+        return ResponseEntity.ok()
+                .header(JwtUtil.REFRESHED_TOKEN_HEADER, jwtUtil.generateToken(user))
+                .body(buyer);
     }
 
     @GetMapping("/currencies")
@@ -1,18 +1,29 @@
 package com.perfect.IndiExport.controller;
 
+import com.perfect.IndiExport.config.CurrentUser;
+import com.perfect.IndiExport.dto.ChatAttachmentDto;
 import com.perfect.IndiExport.dto.ChatMessageDto;
+import com.perfect.IndiExport.dto.ChatMessagePageDto;
 import com.perfect.IndiExport.dto.ChatRoomDto;
 import com.perfect.IndiExport.dto.SendMessageRequest;
+import com.perfect.IndiExport.entity.ChatAttachment;
 import com.perfect.IndiExport.entity.User;
-import com.perfect.IndiExport.repository.UserRepository;
+import com.perfect.IndiExport.service.ChatAttachmentService;
 import com.perfect.IndiExport.service.ChatService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -21,13 +32,12 @@ import java.util.List;
 public class ChatController {
 
     private final ChatService chatService;
-    private final UserRepository userRepository;
+    private final ChatAttachmentService attachmentService;
 
-    @GetMapping("/rooms")
-    public ResponseEntity<List<ChatRoomDto>> getChatRooms(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private static final int MAX_MESSAGE_PAGE_SIZE = 100;
 
+    @GetMapping("/rooms")
+    public ResponseEntity<List<ChatRoomDto>> getChatRooms(@CurrentUser User user) {
         // Determine if user is seller or buyer and return appropriate rooms
         boolean isSeller = user.getRole().name().contains("SELLER");
         List<ChatRoomDto> rooms = isSeller 
@@ -39,10 +49,7 @@ public class ChatController {
     @GetMapping("/rooms/inquiry/{inquiryId}")
     public ResponseEntity<ChatRoomDto> getOrCreateChatRoom(
             @PathVariable Long inquiryId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         ChatRoomDto room = chatService.getOrCreateChatRoom(user, inquiryId);
         return ResponseEntity.ok(room);
     }
@@ -50,22 +57,28 @@ public class ChatController {
     @GetMapping("/rooms/{roomId}/messages")
     public ResponseEntity<List<ChatMessageDto>> getMessages(
             @PathVariable Long roomId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         List<ChatMessageDto> messages = chatService.getChatMessages(user, roomId);
         return ResponseEntity.ok(messages);
     }
 
+    // Paginated history - selected when the client passes ?size=
+    @GetMapping(value = "/rooms/{roomId}/messages", params = "size")
+    public ResponseEntity<ChatMessagePageDto> getMessagesPage(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam int size,
+            @CurrentUser User user) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_MESSAGE_PAGE_SIZE);
+        return ResponseEntity.ok(chatService.getChatMessagesPage(user, roomId, before, after, pageSize));
+    }
+
     @PostMapping("/rooms/{roomId}/messages")
     public ResponseEntity<ChatMessageDto> sendMessage(
             @PathVariable Long roomId,
             @RequestBody SendMessageRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         // Determine if user is seller (simplified - check role)
         boolean isSeller = user.getRole().name().contains("SELLER");
         ChatMessageDto message = chatService.sendMessage(user, roomId, request, isSeller);
@@ -75,14 +88,40 @@ public class ChatController {
     @PutMapping("/rooms/{roomId}/read")
     public ResponseEntity<?> markAsRead(
             @PathVariable Long roomId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         chatService.markMessagesAsRead(user, roomId);
         return ResponseEntity.ok("Messages marked as read");
     }
-}
-
 
+    @PostMapping(value = "/rooms/{roomId}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ChatAttachmentDto> uploadAttachment(
+            @PathVariable Long roomId,
+            @RequestParam("file") MultipartFile file,
+            @CurrentUser User user) {
+        boolean isSeller = user.getRole().name().contains("SELLER");
+        return ResponseEntity.ok(attachmentService.upload(user, roomId, file, isSeller));
+    }
 
+    // Returning a Resource lets Spring answer Range requests with the requested regions and stream
+    // the file through a small copy buffer instead of reading it into memory. This is a buffered
+    // copy through the JVM, not sendfile; large downloads are best served by a proxy in front.
+    @GetMapping("/attachments/{attachmentId}")
+    public ResponseEntity<Resource> downloadAttachment(
+            @PathVariable Long attachmentId,
+            @CurrentUser User user) {
+        ChatAttachment attachment = attachmentService.getAttachment(user, attachmentId);
+        MediaType contentType = attachment.getContentType() != null
+                ? MediaType.parseMediaType(attachment.getContentType())
+                : MediaTypeFactory.getMediaType(attachment.getFileName()).orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        // Blobs are immutable, so the content hash is a strong validator
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .eTag(attachment.getSha256())
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(attachment.getFileName(), StandardCharsets.UTF_8)
+                        .build().toString())
+                .body(attachmentService.getContent(attachment));
+    }
+}
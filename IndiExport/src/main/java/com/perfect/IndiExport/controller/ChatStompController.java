@@ -0,0 +1,55 @@
+package com.perfect.IndiExport.controller;
+
+import com.perfect.IndiExport.config.AuthPrincipal;
+import com.perfect.IndiExport.dto.SendMessageRequest;
+import com.perfect.IndiExport.service.ChatPresenceRegistry;
+import com.perfect.IndiExport.service.ChatService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+// STOMP counterpart of ChatController. Frames arrive on /app/chat/{roomId}/...; the principal
+// was resolved at CONNECT by StompAuthChannelInterceptor, so there is no per-frame user lookup.
+@Controller
+@RequiredArgsConstructor
+public class ChatStompController {
+
+    private final ChatService chatService;
+    private final ChatPresenceRegistry presenceRegistry;
+
+    @MessageMapping("/chat/{roomId}/send")
+    public void sendMessage(@DestinationVariable Long roomId,
+            @Payload SendMessageRequest request,
+            AuthPrincipal principal) {
+        // The service broadcasts the message on /topic/chat/{roomId}
+        chatService.sendMessage(principal.toUser(), roomId, request, principal.isSeller());
+        presenceRegistry.typing(roomId, principal.getId(), false);
+    }
+
+    @MessageMapping("/chat/{roomId}/typing")
+    public void typing(@DestinationVariable Long roomId,
+            @Payload(required = false) Boolean typing,
+            AuthPrincipal principal) {
+        // Room membership was checked by StompAuthChannelInterceptor (once per session and room)
+        // Not broadcast per frame - the registry publishes coalesced PRESENCE snapshots on its tick
+        presenceRegistry.typing(roomId, principal.getId(), typing == null || typing);
+    }
+
+    @MessageMapping("/chat/{roomId}/read")
+    public void markAsRead(@DestinationVariable Long roomId, AuthPrincipal principal) {
+        chatService.markMessagesAsRead(principal.toUser(), roomId);
+    }
+
+    // Errors go back to the sending session only
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, String> handleError(RuntimeException e) {
+        return Map.of("message", e.getMessage() != null ? e.getMessage() : "Request failed");
+    }
+}
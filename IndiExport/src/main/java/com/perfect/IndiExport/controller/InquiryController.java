@@ -1,16 +1,14 @@
 package com.perfect.IndiExport.controller;
 
+import com.perfect.IndiExport.config.CurrentUser;
 import com.perfect.IndiExport.dto.InquiryDto;
 import com.perfect.IndiExport.dto.InquiryReplyRequest;
 import com.perfect.IndiExport.dto.InquiryRequest;
 import com.perfect.IndiExport.entity.Inquiry;
 import com.perfect.IndiExport.entity.User;
-import com.perfect.IndiExport.repository.UserRepository;
 import com.perfect.IndiExport.service.InquiryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,15 +20,11 @@ import java.util.List;
 public class InquiryController {
 
     private final InquiryService inquiryService;
-    private final UserRepository userRepository;
 
     @GetMapping("/buyer")
     public ResponseEntity<List<InquiryDto>> getBuyerInquiries(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @CurrentUser User user,
             @RequestParam(required = false) Inquiry.InquiryStatus status) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         List<InquiryDto> inquiries;
         if (status != null) {
             inquiries = inquiryService.getBuyerInquiriesByStatus(user, status);
@@ -42,11 +36,8 @@ public class InquiryController {
 
     @GetMapping("/seller")
     public ResponseEntity<List<InquiryDto>> getSellerInquiries(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @CurrentUser User user,
             @RequestParam(required = false) Inquiry.InquiryStatus status) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         List<InquiryDto> inquiries;
         if (status != null) {
             inquiries = inquiryService.getSellerInquiriesByStatus(user, status);
@@ -59,10 +50,7 @@ public class InquiryController {
     @GetMapping("/{id}")
     public ResponseEntity<InquiryDto> getInquiryDetails(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         InquiryDto inquiry;
         boolean isSeller = user.getRole().name().contains("SELLER");
 
@@ -79,10 +67,7 @@ public class InquiryController {
     public ResponseEntity<InquiryDto> replyToInquiry(
             @PathVariable Long id,
             @RequestBody InquiryReplyRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         InquiryDto inquiry;
         if (user.getRole().name().contains("SELLER")) {
             inquiry = inquiryService.replyToInquiry(user, id, request);
@@ -96,10 +81,7 @@ public class InquiryController {
     @PatchMapping("/{id}/close")
     public ResponseEntity<InquiryDto> closeInquiry(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         InquiryDto inquiry = inquiryService.updateInquiryStatus(user, id, Inquiry.InquiryStatus.CLOSED);
         return ResponseEntity.ok(inquiry);
     }
@@ -108,10 +90,7 @@ public class InquiryController {
     @PostMapping("/buyer")
     public ResponseEntity<InquiryDto> createInquiry(
             @RequestBody InquiryRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         InquiryDto inquiry = inquiryService.createInquiry(user, request);
         return ResponseEntity.ok(inquiry);
     }
@@ -120,10 +99,7 @@ public class InquiryController {
     public ResponseEntity<InquiryDto> updateInquiry(
             @PathVariable Long id,
             @RequestBody InquiryRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         InquiryDto inquiry = inquiryService.updateInquiry(user, id, request);
         return ResponseEntity.ok(inquiry);
     }
@@ -131,10 +107,7 @@ public class InquiryController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteInquiry(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         inquiryService.deleteInquiry(user, id);
         return ResponseEntity.ok("Inquiry deleted successfully");
     }
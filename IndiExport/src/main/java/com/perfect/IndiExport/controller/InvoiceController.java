@@ -1,17 +1,15 @@
 package com.perfect.IndiExport.controller;
 
+import com.perfect.IndiExport.config.CurrentUser;
 import com.perfect.IndiExport.dto.GenerateInvoiceRequest;
 import com.perfect.IndiExport.dto.InvoiceDto;
 import com.perfect.IndiExport.entity.User;
-import com.perfect.IndiExport.repository.UserRepository;
 import com.perfect.IndiExport.service.InvoiceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,24 +21,17 @@ import java.util.List;
 public class InvoiceController {
 
         private final InvoiceService invoiceService;
-        private final UserRepository userRepository;
 
         @PostMapping
         public ResponseEntity<InvoiceDto> generateInvoice(
                         @RequestBody GenerateInvoiceRequest request,
-                        @AuthenticationPrincipal UserDetails userDetails) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
+                        @CurrentUser User user) {
                 InvoiceDto invoice = invoiceService.generateInvoice(user, request);
                 return ResponseEntity.ok(invoice);
         }
 
         @GetMapping
-        public ResponseEntity<List<InvoiceDto>> getMyInvoices(@AuthenticationPrincipal UserDetails userDetails) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
+        public ResponseEntity<List<InvoiceDto>> getMyInvoices(@CurrentUser User user) {
                 List<InvoiceDto> invoices = invoiceService.getSellerInvoices(user);
                 return ResponseEntity.ok(invoices);
         }
@@ -48,10 +39,7 @@ public class InvoiceController {
         @GetMapping("/{id}")
         public ResponseEntity<InvoiceDto> getInvoice(
                         @PathVariable Long id,
-                        @AuthenticationPrincipal UserDetails userDetails) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
+                        @CurrentUser User user) {
                 InvoiceDto invoice = invoiceService.getInvoice(user, id);
                 return ResponseEntity.ok(invoice);
         }
@@ -59,10 +47,7 @@ public class InvoiceController {
         @PutMapping("/{id}/confirm")
         public ResponseEntity<InvoiceDto> confirmInvoice(
                         @PathVariable Long id,
-                        @AuthenticationPrincipal UserDetails userDetails) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
+                        @CurrentUser User user) {
                 InvoiceDto invoice = invoiceService.confirmInvoice(user, id);
                 return ResponseEntity.ok(invoice);
         }
@@ -70,10 +55,7 @@ public class InvoiceController {
         @PutMapping("/{id}/cancel")
         public ResponseEntity<InvoiceDto> cancelInvoice(
                         @PathVariable Long id,
-                        @AuthenticationPrincipal UserDetails userDetails) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
+                        @CurrentUser User user) {
                 InvoiceDto invoice = invoiceService.cancelInvoice(user, id);
                 return ResponseEntity.ok(invoice);
         }
@@ -81,10 +63,7 @@ public class InvoiceController {
         @GetMapping("/{id}/pdf")
         public ResponseEntity<byte[]> downloadInvoicePdf(
                         @PathVariable Long id,
-                        @AuthenticationPrincipal UserDetails userDetails) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
+                        @CurrentUser User user) {
                 // Get invoice and check access in one go
                 InvoiceDto invoiceDto = invoiceService.getInvoice(user, id);
                 byte[] pdfBytes = invoiceService.generatePdf(user, id);
@@ -99,10 +78,7 @@ public class InvoiceController {
         }
 
         @GetMapping("/buyer")
-        public ResponseEntity<List<InvoiceDto>> getBuyerInvoices(@AuthenticationPrincipal UserDetails userDetails) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
+        public ResponseEntity<List<InvoiceDto>> getBuyerInvoices(@CurrentUser User user) {
                 List<InvoiceDto> invoices = invoiceService.getBuyerInvoices(user);
                 return ResponseEntity.ok(invoices);
         }
@@ -110,10 +86,7 @@ public class InvoiceController {
         @GetMapping("/buyer/{id}")
         public ResponseEntity<InvoiceDto> getBuyerInvoice(
                         @PathVariable Long id,
-                        @AuthenticationPrincipal UserDetails userDetails) {
-                User user = userRepository.findByEmail(userDetails.getUsername())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
+                        @CurrentUser User user) {
                 InvoiceDto invoice = invoiceService.getBuyerInvoice(user, id);
                 return ResponseEntity.ok(invoice);
         }
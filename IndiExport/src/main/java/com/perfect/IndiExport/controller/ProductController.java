@@ -1,15 +1,14 @@
 package com.perfect.IndiExport.controller;
 
+import com.perfect.IndiExport.config.CurrentUser;
 import com.perfect.IndiExport.dto.CountryDto;
 import com.perfect.IndiExport.dto.ProductDto;
+import com.perfect.IndiExport.dto.ProductPageDto;
 import com.perfect.IndiExport.entity.User;
-import com.perfect.IndiExport.repository.UserRepository;
 import com.perfect.IndiExport.service.ProductService;
 import com.perfect.IndiExport.util.CountryUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,20 +21,17 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductService productService;
-    private final UserRepository userRepository;
+
+    private static final int MAX_BROWSE_PAGE_SIZE = 100;
 
     @PostMapping
     public ResponseEntity<ProductDto> addProduct(@RequestBody ProductDto dto,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @CurrentUser User user) {
         return ResponseEntity.ok(productService.addProduct(user, dto));
     }
 
     @GetMapping("/my")
-    public ResponseEntity<List<ProductDto>> getMyProducts(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<List<ProductDto>> getMyProducts(@CurrentUser User user) {
         return ResponseEntity.ok(productService.getSellerProducts(user));
     }
 
@@ -43,18 +39,14 @@ public class ProductController {
     public ResponseEntity<ProductDto> updateProduct(
             @PathVariable Long id,
             @RequestBody ProductDto dto,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @CurrentUser User user) {
         return ResponseEntity.ok(productService.updateProduct(user, id, dto));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteProduct(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @CurrentUser User user) {
         productService.deleteProduct(user, id);
         return ResponseEntity.ok(Map.of("message", "Product deactivated successfully"));
     }
@@ -63,9 +55,7 @@ public class ProductController {
     public ResponseEntity<ProductDto> toggleStatus(
             @PathVariable Long id,
             @RequestParam boolean active,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @CurrentUser User user) {
         return ResponseEntity.ok(productService.toggleProductStatus(user, id, active));
     }
 
@@ -82,32 +72,40 @@ public class ProductController {
     // Buyer endpoints
     @GetMapping("/browse")
     public ResponseEntity<List<ProductDto>> browseProducts(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @CurrentUser User user,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String search) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         List<ProductDto> products = productService.getProductsForBuyer(user, category, search);
         return ResponseEntity.ok(products);
     }
 
+    // Paginated browse mode - selected when the client passes ?size=
+    @GetMapping(value = "/browse", params = "size")
+    public ResponseEntity<ProductPageDto> browseProductsPage(
+            @CurrentUser User user,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_BROWSE_PAGE_SIZE);
+        return ResponseEntity.ok(productService.getProductsForBuyerPage(user, category, search, cursor, pageSize));
+    }
+
+    @GetMapping("/browse/categories")
+    public ResponseEntity<List<String>> browseCategories(@CurrentUser User user) {
+        return ResponseEntity.ok(productService.getBrowseCategoriesForBuyer(user));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductDto> getProductDetails(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         // Check if user is buyer or seller
         boolean isSeller = user.getRole().name().contains("SELLER");
 
         if (isSeller) {
             // Seller view - return basic DTO
-            ProductDto dto = productService.getSellerProducts(user).stream()
-                    .filter(p -> p.getId().equals(id))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            ProductDto dto = productService.getSellerProductDetails(user, id);
             return ResponseEntity.ok(dto);
         } else {
             // Buyer view - return with currency conversion
@@ -1,16 +1,14 @@
 package com.perfect.IndiExport.controller;
 
+import com.perfect.IndiExport.config.CurrentUser;
 import com.perfect.IndiExport.dto.RFQDto;
 import com.perfect.IndiExport.dto.RFQRequest;
 import com.perfect.IndiExport.dto.RFQResponseDto;
 import com.perfect.IndiExport.dto.RFQResponseRequest;
 import com.perfect.IndiExport.entity.User;
-import com.perfect.IndiExport.repository.UserRepository;
 import com.perfect.IndiExport.service.RFQService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,13 +20,9 @@ import java.util.List;
 public class RFQController {
 
     private final RFQService rfqService;
-    private final UserRepository userRepository;
 
     @GetMapping
-    public ResponseEntity<List<RFQDto>> getAvailableRFQs(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<List<RFQDto>> getAvailableRFQs(@CurrentUser User user) {
         List<RFQDto> rfqs;
         boolean isSeller = user.getRole().name().contains("SELLER");
         
@@ -45,10 +39,7 @@ public class RFQController {
     @GetMapping("/{id}")
     public ResponseEntity<RFQDto> getRFQDetails(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         RFQDto rfq;
         boolean isSeller = user.getRole().name().contains("SELLER");
         
@@ -65,10 +56,7 @@ public class RFQController {
     public ResponseEntity<RFQResponseDto> respondToRFQ(
             @PathVariable Long id,
             @RequestBody RFQResponseRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         RFQResponseDto response = rfqService.respondToRFQ(user, id, request);
         return ResponseEntity.ok(response);
     }
@@ -76,10 +64,7 @@ public class RFQController {
     @GetMapping("/{id}/responses")
     public ResponseEntity<List<RFQResponseDto>> getRFQResponses(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
+            @CurrentUser User user) {
         // Verify access - buyer can only see responses to their own RFQs
         boolean isSeller = user.getRole().name().contains("SELLER");
         if (!isSeller) {
@@ -95,10 +80,7 @@ public class RFQController {
     }
 
     @GetMapping("/my-responses")
-    public ResponseEntity<List<RFQResponseDto>> getMyRFQResponses(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<List<RFQResponseDto>> getMyRFQResponses(@CurrentUser User user) {
         List<RFQResponseDto> responses = rfqService.getMyRFQResponses(user);
         return ResponseEntity.ok(responses);
     }
@@ -107,10 +89,7 @@ public class RFQController {
     @PostMapping
     public ResponseEntity<RFQDto> createRFQ(
             @RequestBody RFQRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         RFQDto rfq = rfqService.createRFQ(user, request);
         return ResponseEntity.ok(rfq);
     }
@@ -119,10 +98,7 @@ public class RFQController {
     public ResponseEntity<RFQDto> updateRFQ(
             @PathVariable Long id,
             @RequestBody RFQRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         RFQDto rfq = rfqService.updateRFQ(user, id, request);
         return ResponseEntity.ok(rfq);
     }
@@ -130,10 +106,7 @@ public class RFQController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteRFQ(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         rfqService.deleteRFQ(user, id);
         return ResponseEntity.ok("RFQ deleted successfully");
     }
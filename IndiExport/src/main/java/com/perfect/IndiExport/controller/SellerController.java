@@ -1,15 +1,14 @@
 package com.perfect.IndiExport.controller;
 
+import com.perfect.IndiExport.config.CurrentUser;
 import com.perfect.IndiExport.dto.SellerOnboardingRequest;
 import com.perfect.IndiExport.entity.Seller;
 import com.perfect.IndiExport.entity.User;
 import com.perfect.IndiExport.service.SellerService;
+import com.perfect.IndiExport.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
-import com.perfect.IndiExport.repository.UserRepository;
 
 @RestController
 @RequestMapping("/api/seller")
@@ -17,38 +16,26 @@ import com.perfect.IndiExport.repository.UserRepository;
 public class SellerController {
 
     private final SellerService sellerService;
-    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
 
     @PostMapping("/onboard")
     public ResponseEntity<Seller> onboardSeller(@RequestBody SellerOnboardingRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        // Fetch full user entity from DB using email/username from details
-        // Assuming CustomUserDetailsService returns a Principal that might be User or
-        // we fetch by email
-        String email = userDetails.getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser(load = true) User user) {
+        // Onboarding changes the role, so the managed user is needed and the old token's role claim is stale
         Seller seller = sellerService.onboardSeller(user, request);
-        return ResponseEntity.ok(seller);
+        return ResponseEntity.ok()
+                .header(JwtUtil.REFRESHED_TOKEN_HEADER, jwtUtil.generateToken(user))
+                .body(seller);
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<Seller> getProfile(@AuthenticationPrincipal UserDetails userDetails) {
-        String email = userDetails.getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<Seller> getProfile(@CurrentUser User user) {
         return ResponseEntity.ok(sellerService.getSellerProfile(user));
     }
 
     @PutMapping("/profile")
     public ResponseEntity<Seller> updateProfile(@RequestBody SellerOnboardingRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        String email = userDetails.getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         Seller updatedSeller = sellerService.updateSellerProfile(user, request);
         return ResponseEntity.ok(updatedSeller);
     }
@@ -0,0 +1,17 @@
+package com.perfect.IndiExport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatAttachmentDto {
+    private Long id;
+    private String fileName;
+    private String contentType;
+    private Long size;
+    private String sha256;
+    private String url; // Authenticated download, supports HTTP Range
+}
@@ -0,0 +1,18 @@
+package com.perfect.IndiExport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Pushed on /topic/chat/{roomId} when messages sent in low-latency mode have been
+// stored (PERSISTED) or given up on after retries (FAILED, the sender should resend)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatDeliveryDto {
+    private String type;
+    private Long chatRoomId;
+    private List<Long> messageIds;
+}
@@ -13,6 +13,7 @@ public class ChatMessageDto {
     private String senderName;
     private ChatMessage.MessageType senderType;
     private String message;
+    private Long attachmentId;
     private String fileName;
     private String fileUrl;
     private Boolean isRead;
@@ -0,0 +1,16 @@
+package com.perfect.IndiExport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessagePageDto {
+    private List<ChatMessageDto> content; // Always oldest first
+    private Long nextCursor; // Pass back as the same ?before= / ?after= to continue, null when there is none
+    private boolean hasNext;
+}
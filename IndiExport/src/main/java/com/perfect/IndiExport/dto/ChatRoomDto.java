@@ -1,10 +1,14 @@
 package com.perfect.IndiExport.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ChatRoomDto {
     private Long id;
     private Long inquiryId;
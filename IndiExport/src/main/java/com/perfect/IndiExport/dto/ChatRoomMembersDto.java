@@ -0,0 +1,18 @@
+package com.perfect.IndiExport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The two participants of a chat room; seller ids are the owning user's id
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatRoomMembersDto {
+    private Long buyerId;
+    private Long sellerId;
+
+    public boolean includes(Long userId) {
+        return buyerId.equals(userId) || sellerId.equals(userId);
+    }
+}
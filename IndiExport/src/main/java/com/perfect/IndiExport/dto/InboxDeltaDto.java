@@ -0,0 +1,21 @@
+package com.perfect.IndiExport.dto;
+
+import com.perfect.IndiExport.entity.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Pushed to /user/queue/inbox so a room list stays current without re-fetching /api/chat/rooms.
+// lastMessageAt, preview and lastSenderType are null when only the read state changed.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxDeltaDto {
+    private Long chatRoomId;
+    private LocalDateTime lastMessageAt;
+    private long unreadCount;
+    private String preview;
+    private ChatMessage.MessageType lastSenderType;
+}
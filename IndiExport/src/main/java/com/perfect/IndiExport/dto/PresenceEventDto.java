@@ -0,0 +1,29 @@
+package com.perfect.IndiExport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One node's view of who is in a room and who is typing, pushed on /topic/chat/{roomId} at most
+// once per presence tick when something changed, and again on the refresh interval. With several
+// nodes behind a broker relay, each node reports only its own sessions: clients keep the latest
+// event per nodeId and show the union.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceEventDto {
+    private String type = "PRESENCE";
+    private Long chatRoomId;
+    private String nodeId;
+    private List<Long> onlineUserIds;
+    private List<Long> typingUserIds;
+
+    public PresenceEventDto(Long chatRoomId, String nodeId, List<Long> onlineUserIds, List<Long> typingUserIds) {
+        this.chatRoomId = chatRoomId;
+        this.nodeId = nodeId;
+        this.onlineUserIds = onlineUserIds;
+        this.typingUserIds = typingUserIds;
+    }
+}
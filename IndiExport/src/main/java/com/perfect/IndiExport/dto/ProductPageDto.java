@@ -0,0 +1,16 @@
+package com.perfect.IndiExport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageDto {
+    private List<ProductDto> content;
+    private Long nextCursor; // Pass back as ?cursor= to fetch the next page, null when there is none
+    private boolean hasNext;
+}
@@ -0,0 +1,25 @@
+package com.perfect.IndiExport.dto;
+
+import com.perfect.IndiExport.entity.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pushed on /topic/chat/{roomId} alongside messages; clients tell the two apart by "type"
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDto {
+    private String type = "READ_RECEIPT";
+    private Long chatRoomId;
+    private Long readerId;
+    private ChatMessage.MessageType readerType;
+    private Long lastReadMessageId; // The reader has seen every message up to and including this id
+
+    public ReadReceiptDto(Long chatRoomId, Long readerId, ChatMessage.MessageType readerType, Long lastReadMessageId) {
+        this.chatRoomId = chatRoomId;
+        this.readerId = readerId;
+        this.readerType = readerType;
+        this.lastReadMessageId = lastReadMessageId;
+    }
+}
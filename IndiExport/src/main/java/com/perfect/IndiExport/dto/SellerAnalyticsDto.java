@@ -14,7 +14,7 @@ import java.util.Map;
 @AllArgsConstructor
 public class SellerAnalyticsDto {
     // Basic Metrics (available to all sellers)
-    private Long totalProductViews; // Simplified: count of unique products with inquiries
+    private Long totalProductViews; // Daily unique buyer views, summed over all products
     private Long totalInquiries;
     private Long totalRFQsParticipated;
     private Long totalChatsInitiated;
@@ -5,8 +5,7 @@ import lombok.Data;
 @Data
 public class SendMessageRequest {
     private String message;
-    private String fileName; // Optional, for ADVANCED sellers
-    private String fileUrl; // Optional, for ADVANCED sellers
+    private Long attachmentId; // Optional, an upload to this room - ADVANCED sellers only on the seller side
 }
 
 
@@ -0,0 +1,44 @@
+package com.perfect.IndiExport.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// An uploaded chat file. The bytes live in ChatBlobStore under their SHA-256, so the same
+// file uploaded twice is stored once; each upload still gets its own row and name.
+@Entity
+@Table(name = "chat_attachments",
+       indexes = @Index(name = "idx_chat_attachments_sha256", columnList = "sha256"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatAttachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "chat_room_id", nullable = false)
+    private Long chatRoomId;
+
+    @Column(name = "uploader_id", nullable = false)
+    private Long uploaderId;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    private String contentType;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -7,7 +7,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages",
+       indexes = {
+               @Index(name = "idx_chat_messages_room_id", columnList = "chat_room_id, id"),
+               @Index(name = "idx_chat_messages_room_sender_id", columnList = "chat_room_id, sender_type, id")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,8 +19,14 @@ import java.time.LocalDateTime;
 @Builder
 public class ChatMessage {
 
+    // Ids come from a sequence in blocks, shared by JPA inserts and ChatMessageIdAllocator,
+    // so a node hands out ids from memory and only goes to the database once per block
+    public static final String ID_SEQUENCE = "chat_message_ids";
+    public static final int ID_BLOCK_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,9 +44,14 @@ public class ChatMessage {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String message;
 
+    @Column(name = "attachment_id")
+    private Long attachmentId; // ChatAttachment id, for file attachments (ADVANCED sellers only)
+
     private String fileName; // For file attachments (ADVANCED sellers only)
     private String fileUrl; // File storage URL
 
+    // Legacy flag, no longer updated - read state lives in the ChatRoom read cursors.
+    // Kept mapped because the column is NOT NULL in existing databases.
     @Column(nullable = false)
     @Builder.Default
     private Boolean isRead = false;
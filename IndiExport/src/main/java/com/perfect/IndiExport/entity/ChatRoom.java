@@ -38,6 +38,14 @@ public class ChatRoom {
     @Builder.Default
     private Boolean isActive = true;
 
+    // Read state per participant: every message with a higher id is unread for them.
+    // Null on rooms created before the cursors existed until DataInitializer backfills them.
+    @Builder.Default
+    private Long buyerLastReadMessageId = 0L;
+
+    @Builder.Default
+    private Long sellerLastReadMessageId = 0L;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -56,6 +56,12 @@ public class Product {
     @Builder.Default
     private Integer reservedStock = 0; // Quantity locked by inquiries/invoices
 
+    // Guards full-entity saves; the stock UPDATEs in ProductRepository bump it as well.
+    // The default lets schema update add the column to existing rows.
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -0,0 +1,38 @@
+package com.perfect.IndiExport.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Daily rollup of product_view_tracking, maintained by ProductViewRollupJob
+@Entity
+@Table(name = "product_view_daily",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "view_day"}),
+       indexes = @Index(name = "idx_product_view_daily_seller_day", columnList = "seller_id, view_day"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductViewDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId; // Denormalized so seller queries skip the products join
+
+    @Column(name = "view_day", nullable = false)
+    private LocalDate viewDay;
+
+    @Column(nullable = false)
+    private Long views;
+
+    @Column(nullable = false)
+    private Long uniqueBuyers;
+}
@@ -0,0 +1,9 @@
+package com.perfect.IndiExport.repository;
+
+import com.perfect.IndiExport.entity.ChatAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChatAttachmentRepository extends JpaRepository<ChatAttachment, Long> {
+}
@@ -1,7 +1,11 @@
 package com.perfect.IndiExport.repository;
 
 import com.perfect.IndiExport.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,9 +14,17 @@ import java.util.List;
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     List<ChatMessage> findByChatRoomIdOrderByCreatedAtAsc(Long chatRoomId);
     
-    long countByChatRoomIdAndIsReadFalseAndSenderType(Long chatRoomId, ChatMessage.MessageType senderType);
-}
-
-
+    @Query("SELECT MAX(m.id) FROM ChatMessage m WHERE m.chatRoom.id = :chatRoomId")
+    Long findLatestIdByChatRoomId(@Param("chatRoomId") Long chatRoomId);
 
+    // Keyset pages over (chat_room_id, id): older messages newest first, newer messages oldest first
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+            "WHERE m.chatRoom.id = :chatRoomId AND m.id < :beforeId ORDER BY m.id DESC")
+    Slice<ChatMessage> findPageBefore(@Param("chatRoomId") Long chatRoomId, @Param("beforeId") Long beforeId,
+            Pageable pageable);
 
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+            "WHERE m.chatRoom.id = :chatRoomId AND m.id > :afterId ORDER BY m.id ASC")
+    Slice<ChatMessage> findPageAfter(@Param("chatRoomId") Long chatRoomId, @Param("afterId") Long afterId,
+            Pageable pageable);
+}
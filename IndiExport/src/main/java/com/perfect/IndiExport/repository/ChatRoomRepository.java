@@ -1,15 +1,26 @@
 package com.perfect.IndiExport.repository;
 
+import com.perfect.IndiExport.dto.ChatRoomDto;
+import com.perfect.IndiExport.dto.ChatRoomMembersDto;
+import com.perfect.IndiExport.entity.ChatMessage;
 import com.perfect.IndiExport.entity.ChatRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     Optional<ChatRoom> findByInquiryId(Long inquiryId);
+
+    @Query("SELECT new com.perfect.IndiExport.dto.ChatRoomMembersDto(r.buyer.id, r.seller.id) " +
+            "FROM ChatRoom r WHERE r.id = :roomId")
+    Optional<ChatRoomMembersDto> findMembersById(@Param("roomId") Long roomId);
     
     List<ChatRoom> findBySellerIdOrderByUpdatedAtDesc(Long sellerId);
     
@@ -18,7 +29,64 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     Optional<ChatRoom> findByInquiryIdAndSellerId(Long inquiryId, Long sellerId);
     
     long countBySellerId(Long sellerId);
-}
 
+    // Room list rows built in one statement: participants, product, unread count of messages
+    // sent by the other party past the viewer's read cursor, and the latest message time
+    @Query("SELECT new com.perfect.IndiExport.dto.ChatRoomDto(r.id, i.id, b.id, b.name, s.id, s.businessName, " +
+            "p.id, p.name, r.isActive, " +
+            "(SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom = r AND m.senderType = :unreadFrom " +
+            "AND m.id > COALESCE(r.sellerLastReadMessageId, 0)), " +
+            "(SELECT MAX(m.createdAt) FROM ChatMessage m WHERE m.chatRoom = r), " +
+            "r.createdAt, r.updatedAt) " +
+            "FROM ChatRoom r JOIN r.inquiry i JOIN i.product p JOIN r.buyer b JOIN r.seller s " +
+            "WHERE s.id = :sellerId ORDER BY r.updatedAt DESC")
+    List<ChatRoomDto> findRoomSummariesBySellerId(@Param("sellerId") Long sellerId,
+            @Param("unreadFrom") ChatMessage.MessageType unreadFrom);
+
+    @Query("SELECT new com.perfect.IndiExport.dto.ChatRoomDto(r.id, i.id, b.id, b.name, s.id, s.businessName, " +
+            "p.id, p.name, r.isActive, " +
+            "(SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom = r AND m.senderType = :unreadFrom " +
+            "AND m.id > COALESCE(r.buyerLastReadMessageId, 0)), " +
+            "(SELECT MAX(m.createdAt) FROM ChatMessage m WHERE m.chatRoom = r), " +
+            "r.createdAt, r.updatedAt) " +
+            "FROM ChatRoom r JOIN r.inquiry i JOIN i.product p JOIN r.buyer b JOIN r.seller s " +
+            "WHERE b.id = :buyerId ORDER BY r.updatedAt DESC")
+    List<ChatRoomDto> findRoomSummariesByBuyerId(@Param("buyerId") Long buyerId,
+            @Param("unreadFrom") ChatMessage.MessageType unreadFrom);
+
+    @Query("SELECT new com.perfect.IndiExport.dto.ChatRoomDto(r.id, i.id, b.id, b.name, s.id, s.businessName, " +
+            "p.id, p.name, r.isActive, " +
+            "(SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom = r AND m.senderType = :unreadFrom AND m.id > :readCursor), " +
+            "(SELECT MAX(m.createdAt) FROM ChatMessage m WHERE m.chatRoom = r), " +
+            "r.createdAt, r.updatedAt) " +
+            "FROM ChatRoom r JOIN r.inquiry i JOIN i.product p JOIN r.buyer b JOIN r.seller s " +
+            "WHERE r.id = :roomId")
+    Optional<ChatRoomDto> findRoomSummaryById(@Param("roomId") Long roomId,
+            @Param("unreadFrom") ChatMessage.MessageType unreadFrom, @Param("readCursor") Long readCursor);
 
+    // Row of: buyer email, seller email, buyer unread count, seller unread count
+    @Query("SELECT b.email, su.email, " +
+            "(SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom = r AND m.senderType = :sellerType " +
+            "AND m.id > COALESCE(r.buyerLastReadMessageId, 0)), " +
+            "(SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom = r AND m.senderType = :buyerType " +
+            "AND m.id > COALESCE(r.sellerLastReadMessageId, 0)) " +
+            "FROM ChatRoom r JOIN r.buyer b JOIN r.seller s JOIN s.user su WHERE r.id = :roomId")
+    List<Object[]> findInboxStateById(@Param("roomId") Long roomId,
+            @Param("buyerType") ChatMessage.MessageType buyerType,
+            @Param("sellerType") ChatMessage.MessageType sellerType);
 
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.updatedAt = :updatedAt WHERE r.id = :roomId")
+    int touch(@Param("roomId") Long roomId, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Cursors only move forward, so a late request cannot un-read newer messages
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ChatRoom r SET r.buyerLastReadMessageId = :messageId " +
+            "WHERE r.id = :roomId AND COALESCE(r.buyerLastReadMessageId, 0) < :messageId")
+    int advanceBuyerReadCursor(@Param("roomId") Long roomId, @Param("messageId") Long messageId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ChatRoom r SET r.sellerLastReadMessageId = :messageId " +
+            "WHERE r.id = :roomId AND COALESCE(r.sellerLastReadMessageId, 0) < :messageId")
+    int advanceSellerReadCursor(@Param("roomId") Long roomId, @Param("messageId") Long messageId);
+}
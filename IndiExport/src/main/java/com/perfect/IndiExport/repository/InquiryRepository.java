@@ -2,6 +2,8 @@ package com.perfect.IndiExport.repository;
 
 import com.perfect.IndiExport.entity.Inquiry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,6 +19,13 @@ public interface InquiryRepository extends JpaRepository<Inquiry, Long> {
 
     long countBySellerId(Long sellerId);
 
+    // Inquiries per calendar month as (year, month, count) rows, oldest month first
+    @Query("SELECT YEAR(i.createdAt), MONTH(i.createdAt), COUNT(i) FROM Inquiry i " +
+           "WHERE i.seller.id = :sellerId AND i.createdAt IS NOT NULL " +
+           "GROUP BY YEAR(i.createdAt), MONTH(i.createdAt) " +
+           "ORDER BY YEAR(i.createdAt), MONTH(i.createdAt)")
+    List<Object[]> countMonthlyBySellerId(@Param("sellerId") Long sellerId);
+
     // Buyer methods
     List<Inquiry> findByBuyerIdOrderByCreatedAtDesc(Long buyerId);
 
@@ -1,10 +1,18 @@
 package com.perfect.IndiExport.repository;
 
+import com.perfect.IndiExport.dto.SellerAnalyticsDto;
 import com.perfect.IndiExport.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -13,4 +21,93 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     long countBySellerId(Long sellerId);
 
     long countBySellerIdAndActiveTrue(Long sellerId);
+
+    @Query("SELECT p.seller.id FROM Product p WHERE p.id = :id")
+    Long findSellerIdById(@Param("id") Long id);
+
+    // Inquiry, chat and invoice counts per product for the seller dashboard, most inquiries first.
+    // Each count is grouped once in its own derived table and LEFT JOINed, so the three one-to-many
+    // sides never multiply each other and nothing is re-counted per product or in the ORDER BY.
+    @Query("SELECT new com.perfect.IndiExport.dto.SellerAnalyticsDto$ProductPerformance(p.id, p.name, " +
+           "  COALESCE(ic.total, 0L), COALESCE(cc.total, 0L), COALESCE(vc.total, 0L)) " +
+           "FROM Product p " +
+           "LEFT JOIN (SELECT i.product.id AS productId, COUNT(i) AS total FROM Inquiry i " +
+           "           WHERE i.seller.id = :sellerId GROUP BY i.product.id) ic ON ic.productId = p.id " +
+           "LEFT JOIN (SELECT c.inquiry.product.id AS productId, COUNT(c) AS total FROM ChatRoom c " +
+           "           WHERE c.seller.id = :sellerId GROUP BY c.inquiry.product.id) cc ON cc.productId = p.id " +
+           "LEFT JOIN (SELECT v.product.id AS productId, COUNT(v) AS total FROM Invoice v " +
+           "           WHERE v.seller.id = :sellerId GROUP BY v.product.id) vc ON vc.productId = p.id " +
+           "WHERE p.seller.id = :sellerId " +
+           "ORDER BY COALESCE(ic.total, 0L) DESC, p.id ASC")
+    List<SellerAnalyticsDto.ProductPerformance> findProductPerformanceBySellerId(@Param("sellerId") Long sellerId,
+                                                                                 Pageable pageable);
+
+    // Ownership-checked single product with its selling countries in the same query
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.sellingCountries " +
+           "WHERE p.id = :id AND p.seller.id = :sellerId")
+    Optional<Product> findByIdAndSellerId(@Param("id") Long id, @Param("sellerId") Long sellerId);
+
+    // Buyer browse: status, active flag, country and category are all filtered in SQL.
+    // Country codes are compared upper-cased (rows saved before codes were normalised may be mixed case).
+    // Empty category means "no filter"; results are keyset-paginated on id (afterId = last id seen).
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller " +
+           "WHERE p.status = 'ACTIVE' AND p.active = true " +
+           "AND EXISTS (SELECT 1 FROM ProductSellingCountry psc " +
+           "            WHERE psc.product = p AND UPPER(psc.countryCode) = :country) " +
+           "AND (:category = '' OR LOWER(p.category) = :category) " +
+           "AND p.id > :afterId " +
+           "ORDER BY p.id ASC")
+    Slice<Product> findBrowsableForCountry(@Param("country") String country,
+                                           @Param("category") String category,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    // Distinct categories across everything the buyer can browse, for the category filter
+    @Query("SELECT DISTINCT p.category FROM Product p " +
+           "WHERE p.status = 'ACTIVE' AND p.active = true AND p.category IS NOT NULL " +
+           "AND EXISTS (SELECT 1 FROM ProductSellingCountry psc " +
+           "            WHERE psc.product = p AND UPPER(psc.countryCode) = :country) " +
+           "ORDER BY p.category")
+    List<String> findBrowsableCategoriesForCountry(@Param("country") String country);
+
+    // Same filters applied to search-index hits
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller " +
+           "WHERE p.id IN :ids " +
+           "AND p.status = 'ACTIVE' AND p.active = true " +
+           "AND EXISTS (SELECT 1 FROM ProductSellingCountry psc " +
+           "            WHERE psc.product = p AND UPPER(psc.countryCode) = :country) " +
+           "AND (:category = '' OR LOWER(p.category) = :category)")
+    List<Product> findBrowsableForCountryByIdIn(@Param("ids") Collection<Long> ids,
+                                                @Param("country") String country,
+                                                @Param("category") String category);
+
+    // Stock changes are single statements: the WHERE clause is the availability check, so two
+    // concurrent reservations cannot both pass it. Each bumps the version, so a full-entity save
+    // that read the old stock fails instead of overwriting it.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.reservedStock = p.reservedStock + :quantity, " +
+           "p.version = p.version + 1, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id AND p.declaredStock - p.reservedStock >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET " +
+           "p.reservedStock = CASE WHEN p.reservedStock > :quantity THEN p.reservedStock - :quantity ELSE 0 END, " +
+           "p.version = p.version + 1, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET " +
+           "p.declaredStock = CASE WHEN p.declaredStock > :quantity THEN p.declaredStock - :quantity ELSE 0 END, " +
+           "p.reservedStock = CASE WHEN p.reservedStock > :quantity THEN p.reservedStock - :quantity ELSE 0 END, " +
+           "p.version = p.version + 1, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id")
+    int deductStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Out-of-stock products leave the storefront, as they do on entity writes
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.active = false, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.active = true AND p.declaredStock - p.reservedStock <= 0")
+    int deactivateIfOutOfStock(@Param("id") Long id);
 }
@@ -2,8 +2,11 @@ package com.perfect.IndiExport.repository;
 
 import com.perfect.IndiExport.entity.ProductSellingCountry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,5 +16,14 @@ public interface ProductSellingCountryRepository extends JpaRepository<ProductSe
     void deleteByProductId(Long productId);
     
     boolean existsByProductIdAndCountryCode(Long productId, String countryCode);
+
+    // (productId, countryCode) pairs for a batch of products, one query for the whole list
+    @Query("SELECT psc.product.id, psc.countryCode FROM ProductSellingCountry psc " +
+           "WHERE psc.product.id IN :productIds")
+    List<Object[]> findProductIdAndCountryCodeByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // (productId, countryCode) pairs for warming the availability index
+    @Query("SELECT psc.product.id, psc.countryCode FROM ProductSellingCountry psc")
+    List<Object[]> findAllProductIdAndCountryCode();
 }
 
@@ -0,0 +1,46 @@
+package com.perfect.IndiExport.repository;
+
+import com.perfect.IndiExport.entity.ProductViewDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProductViewDailyRepository extends JpaRepository<ProductViewDaily, Long> {
+
+    // The rollup rebuilds whole (product, day) rows: first drop the ones raw views still cover...
+    // Days whose raw rows were compacted away have nothing to rebuild from, so their totals stay.
+    @Modifying
+    @Query(value = "DELETE FROM product_view_daily d " +
+                   "WHERE d.view_day >= :fromDay " +
+                   "AND EXISTS (SELECT 1 FROM product_view_tracking t " +
+                   "            WHERE t.product_id = d.product_id AND CAST(t.view_date AS date) = d.view_day)",
+           nativeQuery = true)
+    int deleteRebuildableFrom(@Param("fromDay") LocalDate fromDay);
+
+    // ...then re-aggregate them from the raw views. Both run in one transaction, so readers see
+    // either the old or the new totals; a concurrent run on another node fails on the unique
+    // (product_id, view_day) constraint and rolls back, and its next run picks the work up.
+    @Modifying
+    @Query(value = "INSERT INTO product_view_daily (product_id, seller_id, view_day, views, unique_buyers) " +
+                   "SELECT t.product_id, p.seller_id, CAST(t.view_date AS date), " +
+                   "       COUNT(*), COUNT(DISTINCT t.buyer_id) " +
+                   "FROM product_view_tracking t " +
+                   "JOIN products p ON p.id = t.product_id " +
+                   "WHERE t.view_date >= :fromDay " +
+                   "GROUP BY t.product_id, p.seller_id, CAST(t.view_date AS date)",
+           nativeQuery = true)
+    int insertFromRawViews(@Param("fromDay") LocalDateTime fromDay);
+
+    @Query("SELECT MAX(d.viewDay) FROM ProductViewDaily d")
+    LocalDate findLatestViewDay();
+
+    // Total views across all of a seller's products
+    @Query("SELECT COALESCE(SUM(d.views), 0) FROM ProductViewDaily d WHERE d.sellerId = :sellerId")
+    long sumViewsBySellerId(@Param("sellerId") Long sellerId);
+}
@@ -2,49 +2,29 @@ package com.perfect.IndiExport.repository;
 
 import com.perfect.IndiExport.entity.ProductViewTracking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 
+// Raw per-(product, buyer, day) views. Seller-level reporting reads ProductViewDailyRepository.
 @Repository
 public interface ProductViewTrackingRepository extends JpaRepository<ProductViewTracking, Long> {
     
     // Count views for a specific product
     long countByProductId(Long productId);
     
-    // Count views for a seller's products
+    // Distinct buyers who viewed the seller's products within the raw retention window
+    // (indiexport.views.raw-retention-days). Older raw rows are compacted, so this is not an
+    // all-time count, and per-day unique_buyers in the rollup cannot be summed into one either.
     @Query("SELECT COUNT(DISTINCT pvt.buyer.id) FROM ProductViewTracking pvt " +
            "WHERE pvt.product.seller.id = :sellerId")
     long countDistinctBuyersBySellerId(@Param("sellerId") Long sellerId);
-    
-    // Count views for a seller's products in date range
-    @Query("SELECT COUNT(pvt) FROM ProductViewTracking pvt " +
-           "WHERE pvt.product.seller.id = :sellerId " +
-           "AND pvt.viewDate >= :startDate AND pvt.viewDate <= :endDate")
-    long countBySellerIdAndDateRange(@Param("sellerId") Long sellerId, 
-                                      @Param("startDate") LocalDateTime startDate,
-                                      @Param("endDate") LocalDateTime endDate);
-    
-    // Get daily view counts for a seller
-    @Query("SELECT DATE(pvt.viewDate) as viewDate, COUNT(pvt) as count " +
-           "FROM ProductViewTracking pvt " +
-           "WHERE pvt.product.seller.id = :sellerId " +
-           "AND pvt.viewDate >= :startDate " +
-           "GROUP BY DATE(pvt.viewDate) " +
-           "ORDER BY viewDate ASC")
-    List<Object[]> getDailyViewCountsBySellerId(@Param("sellerId") Long sellerId, 
-                                                  @Param("startDate") LocalDateTime startDate);
-    
-    // Check if buyer already viewed product today
-    boolean existsByProductIdAndBuyerIdAndViewDateBetween(
-        Long productId, 
-        Long buyerId, 
-        LocalDateTime startOfDay, 
-        LocalDateTime endOfDay
-    );
-}
 
+    // Compaction of raw rows that are already folded into product_view_daily
+    @Modifying
+    @Query("DELETE FROM ProductViewTracking pvt WHERE pvt.viewDate < :cutoff")
+    int deleteByViewDateBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -4,12 +4,10 @@ import com.perfect.IndiExport.dto.SellerAnalyticsDto;
 import com.perfect.IndiExport.entity.*;
 import com.perfect.IndiExport.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,8 +19,15 @@ public class AnalyticsService {
     private final InvoiceRepository invoiceRepository;
     private final ProductRepository productRepository;
     private final SellerRepository sellerRepository;
+    private final ProductViewDailyRepository productViewDailyRepository;
+    private final SellerAnalyticsCache analyticsCache;
 
     public SellerAnalyticsDto getSellerAnalytics(User user) {
+        // Served from the per-seller snapshot; rebuilt after seller activity or when the TTL runs out
+        return analyticsCache.get(user.getId(), () -> computeSellerAnalytics(user));
+    }
+
+    private SellerAnalyticsDto computeSellerAnalytics(User user) {
         Seller seller = sellerRepository.findById(user.getId())
                 .orElseThrow(() -> new RuntimeException("Seller profile not found"));
 
@@ -35,11 +40,8 @@ public class AnalyticsService {
         Long totalChatsInitiated = chatRoomRepository.countBySellerId(sellerId);
         Long totalInvoicesGenerated = invoiceRepository.countBySellerId(sellerId);
         
-        // For product views: use count of unique products with inquiries as proxy
-        Long totalProductViews = inquiryRepository.findBySellerIdOrderByCreatedAtDesc(sellerId).stream()
-                .map(inquiry -> inquiry.getProduct().getId())
-                .distinct()
-                .count();
+        // Product views come from the daily rollup of view tracking (one buyer counts once per product per day)
+        Long totalProductViews = productViewDailyRepository.sumViewsBySellerId(sellerId);
 
         SellerAnalyticsDto.SellerAnalyticsDtoBuilder builder = SellerAnalyticsDto.builder()
                 .totalProductViews(totalProductViews)
@@ -60,75 +62,20 @@ public class AnalyticsService {
     }
 
     private List<SellerAnalyticsDto.MonthlyData> calculateInquiryGrowth(Long sellerId) {
-        List<Inquiry> inquiries = inquiryRepository.findBySellerIdOrderByCreatedAtDesc(sellerId);
-        
-        Map<String, Long> monthlyCounts = inquiries.stream()
-                .collect(Collectors.groupingBy(
-                    inquiry -> inquiry.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM")),
-                    Collectors.counting()
-                ));
-
-        List<SellerAnalyticsDto.MonthlyData> monthlyData = monthlyCounts.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry -> SellerAnalyticsDto.MonthlyData.builder()
-                        .month(entry.getKey())
-                        .count(entry.getValue())
-                        .build())
-                .collect(Collectors.toList());
-
-        return monthlyData.isEmpty() ? new ArrayList<>() : monthlyData;
-    }
-
-    private List<SellerAnalyticsDto.ProductPerformance> calculateTopProducts(Long sellerId) {
-        List<Product> products = productRepository.findBySellerId(sellerId);
-        List<Inquiry> inquiries = inquiryRepository.findBySellerIdOrderByCreatedAtDesc(sellerId);
-        List<ChatRoom> chatRooms = chatRoomRepository.findBySellerIdOrderByUpdatedAtDesc(sellerId);
-        List<Invoice> invoices = invoiceRepository.findBySellerIdOrderByCreatedAtDesc(sellerId);
-
-        Map<Long, SellerAnalyticsDto.ProductPerformance> productPerformanceMap = new HashMap<>();
-
-        // Initialize all products
-        for (Product product : products) {
-            productPerformanceMap.put(product.getId(), SellerAnalyticsDto.ProductPerformance.builder()
-                    .productId(product.getId())
-                    .productName(product.getName())
-                    .inquiryCount(0L)
-                    .chatCount(0L)
-                    .invoiceCount(0L)
+        // Grouped per month in the database; one row per month instead of one entity per inquiry
+        List<SellerAnalyticsDto.MonthlyData> monthlyData = new ArrayList<>();
+        for (Object[] row : inquiryRepository.countMonthlyBySellerId(sellerId)) {
+            monthlyData.add(SellerAnalyticsDto.MonthlyData.builder()
+                    .month(String.format("%04d-%02d", ((Number) row[0]).intValue(), ((Number) row[1]).intValue()))
+                    .count(((Number) row[2]).longValue())
                     .build());
         }
+        return monthlyData;
+    }
 
-        // Count inquiries per product
-        inquiries.forEach(inquiry -> {
-            Long productId = inquiry.getProduct().getId();
-            if (productPerformanceMap.containsKey(productId)) {
-                SellerAnalyticsDto.ProductPerformance perf = productPerformanceMap.get(productId);
-                perf.setInquiryCount(perf.getInquiryCount() + 1);
-            }
-        });
-
-        // Count chats per product
-        chatRooms.forEach(chatRoom -> {
-            Long productId = chatRoom.getInquiry().getProduct().getId();
-            if (productPerformanceMap.containsKey(productId)) {
-                SellerAnalyticsDto.ProductPerformance perf = productPerformanceMap.get(productId);
-                perf.setChatCount(perf.getChatCount() + 1);
-            }
-        });
-
-        // Count invoices per product
-        invoices.forEach(invoice -> {
-            Long productId = invoice.getProduct().getId();
-            if (productPerformanceMap.containsKey(productId)) {
-                SellerAnalyticsDto.ProductPerformance perf = productPerformanceMap.get(productId);
-                perf.setInvoiceCount(perf.getInvoiceCount() + 1);
-            }
-        });
-
-        return productPerformanceMap.values().stream()
-                .sorted((a, b) -> Long.compare(b.getInquiryCount(), a.getInquiryCount()))
-                .limit(5)
-                .collect(Collectors.toList());
+    private List<SellerAnalyticsDto.ProductPerformance> calculateTopProducts(Long sellerId) {
+        // Counts are grouped per product in the database; only the top 5 rows come back
+        return productRepository.findProductPerformanceBySellerId(sellerId, PageRequest.of(0, 5));
     }
 
     private SellerAnalyticsDto.ConversionFunnel calculateConversionFunnel(
@@ -165,8 +112,7 @@ public class AnalyticsService {
             suggestions.add("Great job! Continue maintaining high-quality products and quick responses.");
         }
 
-        List<Product> products = productRepository.findBySellerId(sellerId);
-        if (products.size() < 5) {
+        if (productRepository.countBySellerId(sellerId) < 5) {
             suggestions.add("Add more products to increase your marketplace presence.");
         }
 
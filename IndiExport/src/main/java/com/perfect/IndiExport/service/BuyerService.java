@@ -9,6 +9,7 @@ import com.perfect.IndiExport.repository.UserRepository;
 import com.perfect.IndiExport.util.CountryUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -17,6 +18,7 @@ public class BuyerService {
 
     private final BuyerRepository buyerRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Buyer getBuyerProfile(User user) {
         return buyerRepository.findByUserId(user.getId())
@@ -70,6 +72,7 @@ public class BuyerService {
         if (dto.getFullName() != null && !dto.getFullName().isEmpty()) {
             user.setName(dto.getFullName());
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
         }
 
         return buyerRepository.save(buyer);
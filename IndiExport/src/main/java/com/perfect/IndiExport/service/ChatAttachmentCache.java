@@ -0,0 +1,54 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.ChatAttachment;
+import com.perfect.IndiExport.repository.ChatAttachmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+// Recently uploaded attachments, so the send that references one right after its upload does not
+// go back to the database. Attachment rows never change; least recently used ones are dropped
+// beyond the size bound and looked up again if referenced later.
+@Component
+public class ChatAttachmentCache {
+
+    private final ChatAttachmentRepository attachmentRepository;
+    private final int maxEntries;
+
+    // Guarded by this; access order, so iteration starts at the least recently used attachment
+    private final LinkedHashMap<Long, ChatAttachment> byId = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ChatAttachmentCache(ChatAttachmentRepository attachmentRepository,
+            @Value("${indiexport.chat.attachment-cache-max-entries:10000}") int maxEntries) {
+        this.attachmentRepository = attachmentRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    public void put(ChatAttachment attachment) {
+        synchronized (this) {
+            byId.put(attachment.getId(), attachment);
+            while (byId.size() > maxEntries) {
+                byId.remove(byId.keySet().iterator().next());
+            }
+        }
+    }
+
+    // Empty unless the attachment exists and was uploaded to this room
+    public Optional<ChatAttachment> findInRoom(Long attachmentId, Long chatRoomId) {
+        ChatAttachment attachment;
+        synchronized (this) {
+            attachment = byId.get(attachmentId);
+        }
+        if (attachment == null) {
+            Optional<ChatAttachment> loaded = attachmentRepository.findById(attachmentId);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            attachment = loaded.get();
+            put(attachment);
+        }
+        return chatRoomId.equals(attachment.getChatRoomId()) ? Optional.of(attachment) : Optional.empty();
+    }
+}
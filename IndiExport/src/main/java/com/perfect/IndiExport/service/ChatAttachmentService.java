@@ -0,0 +1,111 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.ChatAttachmentDto;
+import com.perfect.IndiExport.entity.ChatAttachment;
+import com.perfect.IndiExport.entity.Seller;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.ChatAttachmentRepository;
+import com.perfect.IndiExport.repository.SellerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Service
+@RequiredArgsConstructor
+public class ChatAttachmentService {
+
+    private final ChatAttachmentRepository attachmentRepository;
+    private final SellerRepository sellerRepository;
+    private final ChatService chatService;
+    private final ChatBlobStore blobStore;
+    private final ChatAttachmentCache attachmentCache;
+
+    public ChatAttachmentDto upload(User user, Long chatRoomId, MultipartFile file, boolean isSeller) {
+        chatService.verifyParticipant(user, chatRoomId);
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("File is empty");
+        }
+        if (isSeller) {
+            Seller seller = sellerRepository.findById(user.getId())
+                    .orElseThrow(() -> new RuntimeException("Seller profile not found"));
+            if ("BASIC".equals(seller.getSellerMode())) {
+                throw new RuntimeException(
+                        "File sharing is only available for ADVANCED sellers. Please upgrade to use this feature.");
+            }
+        }
+
+        // The multipart part is already spooled to disk by the container; stream it into the store
+        ChatBlobStore.StoredBlob blob;
+        try (InputStream content = file.getInputStream()) {
+            blob = blobStore.store(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read upload", e);
+        }
+
+        ChatAttachment attachment = attachmentRepository.save(ChatAttachment.builder()
+                .chatRoomId(chatRoomId)
+                .uploaderId(user.getId())
+                .sha256(blob.sha256())
+                .fileName(cleanFileName(file.getOriginalFilename()))
+                .contentType(cleanContentType(file.getContentType()))
+                .size(blob.size())
+                .build());
+        // The send that references it usually follows straight away
+        attachmentCache.put(attachment);
+        return mapToDto(attachment);
+    }
+
+    public ChatAttachment getAttachment(User user, Long attachmentId) {
+        ChatAttachment attachment = attachmentRepository.findById(attachmentId)
+                .orElseThrow(() -> new RuntimeException("Attachment not found"));
+        chatService.verifyParticipant(user, attachment.getChatRoomId());
+        return attachment;
+    }
+
+    public FileSystemResource getContent(ChatAttachment attachment) {
+        Path path = blobStore.path(attachment.getSha256());
+        if (!Files.exists(path)) {
+            throw new RuntimeException("Attachment content missing");
+        }
+        return new FileSystemResource(path);
+    }
+
+    public static String downloadUrl(Long attachmentId) {
+        return "/api/chat/attachments/" + attachmentId;
+    }
+
+    private static String cleanFileName(String originalName) {
+        if (originalName == null || originalName.isBlank()) {
+            return "attachment";
+        }
+        // Browsers may send a full path; keep only the last segment
+        Path name = Paths.get(originalName.replace('\\', '/')).getFileName();
+        return name != null ? name.toString() : "attachment";
+    }
+
+    private static String cleanContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        try {
+            return MediaType.parseMediaType(contentType).toString();
+        } catch (InvalidMediaTypeException e) {
+            return null; // Falls back to a guess from the file name on download
+        }
+    }
+
+    private ChatAttachmentDto mapToDto(ChatAttachment attachment) {
+        return new ChatAttachmentDto(attachment.getId(), attachment.getFileName(), attachment.getContentType(),
+                attachment.getSize(), attachment.getSha256(), downloadUrl(attachment.getId()));
+    }
+}
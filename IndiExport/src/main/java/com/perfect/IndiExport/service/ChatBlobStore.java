@@ -0,0 +1,76 @@
+package com.perfect.IndiExport.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+// Content-addressed file store on local disk: a blob lives at <root>/<aa>/<bb>/<sha256>.
+// Uploads are streamed to a temp file while hashed, then moved into place; if the blob
+// already exists the temp file is dropped, so identical files are stored once.
+@Component
+public class ChatBlobStore {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("^[0-9a-f]{64}$");
+
+    private final Path root;
+
+    public ChatBlobStore(@Value("${indiexport.chat.blob-dir:./data/chat-blobs}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    public record StoredBlob(String sha256, long size) {
+    }
+
+    public StoredBlob store(InputStream content) {
+        try {
+            Path tmpDir = Files.createDirectories(root.resolve("tmp"));
+            Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                long size;
+                try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                    size = content.transferTo(out);
+                }
+                String sha256 = HexFormat.of().formatHex(digest.digest());
+
+                Path target = path(sha256);
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    try {
+                        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (FileAlreadyExistsException e) {
+                        // Same content stored concurrently - keep the existing blob
+                    }
+                }
+                return new StoredBlob(sha256, size);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store attachment", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Path path(String sha256) {
+        if (!SHA256_HEX.matcher(sha256).matches()) {
+            throw new RuntimeException("Invalid blob id");
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+}
@@ -0,0 +1,65 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.ChatMessageDto;
+import com.perfect.IndiExport.dto.InboxDeltaDto;
+import com.perfect.IndiExport.entity.ChatMessage;
+import com.perfect.IndiExport.repository.ChatRoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Sends each participant of a room a compact inbox delta on /user/queue/inbox after a new
+// message or a read. One query per event: both participants' emails and unread counts.
+@Component
+@RequiredArgsConstructor
+public class ChatInboxPublisher {
+
+    private static final String INBOX_DESTINATION = "/queue/inbox";
+    private static final int PREVIEW_LENGTH = 80;
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void publishNewMessage(ChatMessageDto message) {
+        publish(message.getChatRoomId(), message);
+    }
+
+    public void publishRead(Long chatRoomId) {
+        publish(chatRoomId, null);
+    }
+
+    private void publish(Long chatRoomId, ChatMessageDto lastMessage) {
+        List<Object[]> rows = chatRoomRepository.findInboxStateById(chatRoomId,
+                ChatMessage.MessageType.BUYER, ChatMessage.MessageType.SELLER);
+        if (rows.isEmpty()) {
+            return;
+        }
+        Object[] row = rows.get(0);
+        String buyerEmail = (String) row[0];
+        String sellerEmail = (String) row[1];
+        long buyerUnread = ((Number) row[2]).longValue();
+        long sellerUnread = ((Number) row[3]).longValue();
+
+        messagingTemplate.convertAndSendToUser(buyerEmail, INBOX_DESTINATION,
+                delta(chatRoomId, lastMessage, buyerUnread));
+        messagingTemplate.convertAndSendToUser(sellerEmail, INBOX_DESTINATION,
+                delta(chatRoomId, lastMessage, sellerUnread));
+    }
+
+    private static InboxDeltaDto delta(Long chatRoomId, ChatMessageDto lastMessage, long unreadCount) {
+        if (lastMessage == null) {
+            return new InboxDeltaDto(chatRoomId, null, unreadCount, null, null);
+        }
+        String text = lastMessage.getMessage();
+        if (text == null || text.isBlank()) {
+            text = lastMessage.getFileName();
+        }
+        String preview = text != null && text.length() > PREVIEW_LENGTH
+                ? text.substring(0, PREVIEW_LENGTH)
+                : text;
+        return new InboxDeltaDto(chatRoomId, lastMessage.getCreatedAt(), unreadCount, preview,
+                lastMessage.getSenderType());
+    }
+}
@@ -0,0 +1,73 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Hands out chat_messages ids before the row exists, so a message can be broadcast and then
+// written later. Ids are reserved from the chat message sequence a block at a time, exactly as
+// Hibernate's pooled optimizer does for JPA inserts: a sequence value v reserves (v - blockSize, v].
+// Both draw from the same sequence, so their ids never collide, and a send only pays a database
+// round trip once per block. Ids increase in send order on each node; with several nodes, blocks
+// interleave, so ids across nodes are unique but only roughly ordered.
+@Component
+@Slf4j
+public class ChatMessageIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextValueSql;
+    private final int blockSize;
+
+    // Guarded by this: the next id to hand out and the last id of the current block
+    private long nextId = 1;
+    private long blockEnd = 0;
+
+    @Autowired
+    public ChatMessageIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        // The dialect knows how to read a sequence on the database in use
+        this(jdbcTemplate, entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport().getSequenceNextValString(ChatMessage.ID_SEQUENCE),
+                ChatMessage.ID_BLOCK_SIZE);
+    }
+
+    ChatMessageIdAllocator(JdbcTemplate jdbcTemplate, String nextValueSql, int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextValueSql = nextValueSql;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized long next() {
+        if (nextId > blockEnd) {
+            reserveBlock();
+        }
+        return nextId++;
+    }
+
+    // Messages stored before the sequence existed took their ids from the old identity column;
+    // draw blocks until the sequence is past them. Always reserves at least one block, so the
+    // sequence's first value is never handed to Hibernate, which treats it specially.
+    @PostConstruct
+    public synchronized void skipExistingIds() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM chat_messages", Long.class);
+        long skipped = 0;
+        do {
+            reserveBlock();
+            skipped++;
+        } while (maxId != null && blockEnd <= maxId);
+        if (skipped > 1) {
+            log.info("Moved {} past existing chat message ids ({} blocks)", ChatMessage.ID_SEQUENCE, skipped);
+        }
+        nextId = Math.max(nextId, maxId != null ? maxId + 1 : 1);
+    }
+
+    private void reserveBlock() {
+        long end = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+        nextId = Math.max(1, end - blockSize + 1);
+        blockEnd = end;
+    }
+}
@@ -0,0 +1,249 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.ChatDeliveryDto;
+import com.perfect.IndiExport.dto.ChatMessageDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Single-writer persister for the low-latency chat send mode (indiexport.chat.async-persistence).
+// Messages arrive with their id already allocated and already broadcast; one thread drains the
+// queue and writes them in batches, along with one updated_at bump per room.
+//
+// Contract with clients:
+// - the send response and the broadcast mean the message was accepted, not yet stored
+// - PERSISTED on /topic/chat/{roomId} confirms storage; FAILED means it was dropped after
+//   retries, or the database rejected that row, and should be resent
+// - a rejected row is found by re-writing its batch row by row, so it never takes the rest down
+// - when the queue is full the send is rejected up front and nothing is broadcast
+// - a graceful shutdown drains the queue; a crash loses messages not yet flushed
+@Component
+@Slf4j
+public class ChatMessageWriter {
+
+    // Retries re-run the same rows; the id makes them idempotent
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO chat_messages (id, chat_room_id, sender_id, sender_type, message, attachment_id, file_name, file_url, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, false, ?) " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private static final String TOUCH_ROOM_SQL =
+            "UPDATE chat_rooms SET updated_at = ? WHERE id = ? AND (updated_at IS NULL OR updated_at < ?)";
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatMessageIdAllocator idAllocator;
+    private final ChatInboxPublisher inboxPublisher;
+    private final boolean enabled;
+    private final int batchSize;
+    private final BlockingQueue<ChatMessageDto> queue;
+
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public ChatMessageWriter(JdbcTemplate jdbcTemplate,
+            SimpMessagingTemplate messagingTemplate,
+            ChatMessageIdAllocator idAllocator,
+            ChatInboxPublisher inboxPublisher,
+            @Value("${indiexport.chat.async-persistence:false}") boolean enabled,
+            @Value("${indiexport.chat.write-batch-size:500}") int batchSize,
+            @Value("${indiexport.chat.write-queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.idAllocator = idAllocator;
+        this.inboxPublisher = inboxPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::run, "chat-message-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Chat messages are persisted asynchronously (batch size {})", batchSize);
+    }
+
+    // Gives the message its id and queues it; the caller broadcasts the returned DTO
+    public ChatMessageDto submit(ChatMessageDto message) {
+        message.setId(idAllocator.next());
+        if (!queue.offer(message)) {
+            throw new RuntimeException("Chat is busy, please try sending again");
+        }
+        return message;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void run() {
+        List<ChatMessageDto> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatMessageDto first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Whatever piled up while the previous batch was being written goes in this one
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Chat message writer failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void writeWithRetry(List<ChatMessageDto> batch) throws InterruptedException {
+        Outcome outcome = insertWithRetry(batch);
+        if (outcome == Outcome.REJECTED && batch.size() > 1) {
+            // One bad row fails the whole batch; write the rows one at a time so only it is dropped
+            List<ChatMessageDto> persisted = new ArrayList<>(batch.size());
+            List<ChatMessageDto> failed = new ArrayList<>();
+            for (ChatMessageDto message : batch) {
+                (insertWithRetry(List.of(message)) == Outcome.PERSISTED ? persisted : failed).add(message);
+            }
+            completed(persisted);
+            dropped(failed);
+        } else if (outcome == Outcome.PERSISTED) {
+            completed(batch);
+        } else {
+            dropped(batch);
+        }
+    }
+
+    // Constraint violations are not retried: the same rows would be rejected again
+    private Outcome insertWithRetry(List<ChatMessageDto> messages) throws InterruptedException {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                insertMessages(messages);
+                return Outcome.PERSISTED;
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Database rejected {} chat messages", messages.size(), e);
+                return Outcome.REJECTED;
+            } catch (Exception e) {
+                log.warn("Writing {} chat messages failed (attempt {}/{})", messages.size(), attempt, MAX_ATTEMPTS, e);
+                if (attempt < MAX_ATTEMPTS) {
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                }
+            }
+        }
+        return Outcome.FAILED;
+    }
+
+    private void completed(List<ChatMessageDto> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            touchRooms(messages);
+        } catch (Exception e) {
+            // The messages are stored; only the room list ordering lags until the next send
+            log.warn("Updating chat rooms after {} messages failed", messages.size(), e);
+        }
+        notifyRooms(messages, "PERSISTED");
+        publishInboxes(messages);
+    }
+
+    private void dropped(List<ChatMessageDto> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        log.error("Dropping {} chat messages", messages.size());
+        notifyRooms(messages, "FAILED");
+    }
+
+    private void insertMessages(List<ChatMessageDto> messages) {
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, message.getId());
+            ps.setLong(2, message.getChatRoomId());
+            ps.setLong(3, message.getSenderId());
+            ps.setString(4, message.getSenderType().name());
+            ps.setString(5, message.getMessage());
+            ps.setObject(6, message.getAttachmentId(), Types.BIGINT);
+            ps.setString(7, message.getFileName());
+            ps.setString(8, message.getFileUrl());
+            ps.setTimestamp(9, Timestamp.valueOf(message.getCreatedAt()));
+        });
+    }
+
+    private void touchRooms(List<ChatMessageDto> messages) {
+        // One updated_at bump per room, at its newest message in the batch
+        Map<Long, LocalDateTime> latestByRoom = new LinkedHashMap<>();
+        messages.forEach(message -> latestByRoom.merge(message.getChatRoomId(), message.getCreatedAt(),
+                (a, b) -> a.isAfter(b) ? a : b));
+        List<Map.Entry<Long, LocalDateTime>> rooms = new ArrayList<>(latestByRoom.entrySet());
+        jdbcTemplate.batchUpdate(TOUCH_ROOM_SQL, rooms, rooms.size(), (ps, room) -> {
+            Timestamp updatedAt = Timestamp.valueOf(room.getValue());
+            ps.setTimestamp(1, updatedAt);
+            ps.setLong(2, room.getKey());
+            ps.setTimestamp(3, updatedAt);
+        });
+    }
+
+    // Inbox deltas wait for the insert so their unread counts include the new messages
+    private void publishInboxes(List<ChatMessageDto> batch) {
+        Map<Long, ChatMessageDto> lastByRoom = new LinkedHashMap<>();
+        batch.forEach(message -> lastByRoom.put(message.getChatRoomId(), message));
+        lastByRoom.values().forEach(message -> {
+            try {
+                inboxPublisher.publishNewMessage(message);
+            } catch (Exception e) {
+                log.warn("Inbox update for chat room {} failed", message.getChatRoomId(), e);
+            }
+        });
+    }
+
+    private void notifyRooms(List<ChatMessageDto> batch, String type) {
+        Map<Long, List<Long>> idsByRoom = new LinkedHashMap<>();
+        batch.forEach(message -> idsByRoom.computeIfAbsent(message.getChatRoomId(), id -> new ArrayList<>())
+                .add(message.getId()));
+        idsByRoom.forEach((roomId, ids) -> messagingTemplate.convertAndSend("/topic/chat/" + roomId,
+                new ChatDeliveryDto(type, roomId, ids)));
+    }
+
+    private enum Outcome {
+        PERSISTED,
+        REJECTED,
+        FAILED
+    }
+}
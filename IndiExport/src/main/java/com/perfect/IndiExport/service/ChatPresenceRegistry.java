@@ -0,0 +1,186 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.config.AuthPrincipal;
+import com.perfect.IndiExport.dto.PresenceEventDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Who is online and who is typing, per chat room. Presence comes from STOMP subscriptions to
+// /topic/chat/{roomId}; typing from the typing frames. Changes only mark the room dirty, and
+// a fixed tick publishes one snapshot per dirty room, so the broker sees at most
+// (rooms changed) messages per tick however many people are typing.
+//
+// This registry only sees the sessions connected to this node. Snapshots carry the node id and
+// clients combine the latest one from each node, so nodes never overwrite each other's users.
+// Every room with local members is re-published on the refresh interval: clients that subscribed
+// after the last change catch up, and a node that stops reporting can be expired by clients.
+@Component
+@Slf4j
+public class ChatPresenceRegistry {
+
+    private static final Pattern ROOM_TOPIC = Pattern.compile("^/topic/chat/(\\d+)$");
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long typingTtlMillis;
+    private final long refreshMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile long lastRefresh = System.currentTimeMillis();
+
+    // sessionId -> (subscriptionId -> roomId) and the session's user
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+    // roomId -> userId -> number of subscribed sessions; a room's map is only changed inside
+    // online.compute, so a room cannot be dropped while a join is adding to it
+    private final Map<Long, Map<Long, Integer>> online = new ConcurrentHashMap<>();
+    // roomId -> userId -> time the typing signal lapses
+    private final Map<Long, Map<Long, Long>> typing = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyRooms = ConcurrentHashMap.newKeySet();
+
+    public ChatPresenceRegistry(SimpMessagingTemplate messagingTemplate,
+            @Value("${indiexport.chat.typing-ttl-ms:3000}") long typingTtlMillis,
+            @Value("${indiexport.chat.presence-refresh-ms:10000}") long refreshMillis) {
+        this.messagingTemplate = messagingTemplate;
+        this.typingTtlMillis = typingTtlMillis;
+        this.refreshMillis = refreshMillis;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long roomId = roomId(accessor.getDestination());
+        if (roomId == null || !(event.getUser() instanceof AuthPrincipal principal)) {
+            return;
+        }
+        SessionPresence session = sessions.computeIfAbsent(accessor.getSessionId(),
+                id -> new SessionPresence(principal.getId()));
+        session.subscriptions().put(accessor.getSubscriptionId(), roomId);
+        join(roomId, principal.getId());
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        SessionPresence session = sessions.get(accessor.getSessionId());
+        if (session == null) {
+            return;
+        }
+        Long roomId = session.subscriptions().remove(accessor.getSubscriptionId());
+        if (roomId != null) {
+            leave(roomId, session.userId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        SessionPresence session = sessions.remove(event.getSessionId());
+        if (session != null) {
+            session.subscriptions().values().forEach(roomId -> leave(roomId, session.userId()));
+        }
+    }
+
+    // Called for every typing frame; repeated keystrokes only extend the signal
+    public void typing(Long roomId, Long userId, boolean isTyping) {
+        if (isTyping) {
+            // Inside compute, so the tick cannot drop the room's map between lookup and put
+            typing.compute(roomId, (id, typers) -> {
+                Map<Long, Long> current = typers != null ? typers : new ConcurrentHashMap<>();
+                if (current.put(userId, System.currentTimeMillis() + typingTtlMillis) == null) {
+                    dirtyRooms.add(roomId);
+                }
+                return current;
+            });
+        } else {
+            Map<Long, Long> typers = typing.get(roomId);
+            if (typers != null && typers.remove(userId) != null) {
+                dirtyRooms.add(roomId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${indiexport.chat.presence-tick-ms:500}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        for (Long roomId : typing.keySet()) {
+            typing.computeIfPresent(roomId, (id, typers) -> {
+                if (typers.values().removeIf(expiresAt -> expiresAt <= now)) {
+                    dirtyRooms.add(roomId);
+                }
+                return typers.isEmpty() ? null : typers;
+            });
+        }
+
+        if (now - lastRefresh >= refreshMillis) {
+            lastRefresh = now;
+            dirtyRooms.addAll(online.keySet());
+        }
+
+        Iterator<Long> rooms = dirtyRooms.iterator();
+        while (rooms.hasNext()) {
+            Long roomId = rooms.next();
+            rooms.remove();
+            messagingTemplate.convertAndSend("/topic/chat/" + roomId, snapshot(roomId));
+        }
+    }
+
+    public PresenceEventDto snapshot(Long roomId) {
+        return new PresenceEventDto(roomId, nodeId,
+                new ArrayList<>(online.getOrDefault(roomId, Map.of()).keySet()),
+                new ArrayList<>(typing.getOrDefault(roomId, Map.of()).keySet()));
+    }
+
+    private void join(Long roomId, Long userId) {
+        online.compute(roomId, (id, users) -> {
+            Map<Long, Integer> current = users != null ? users : new ConcurrentHashMap<>();
+            if (current.merge(userId, 1, Integer::sum) == 1) {
+                dirtyRooms.add(roomId);
+            }
+            return current;
+        });
+    }
+
+    private void leave(Long roomId, Long userId) {
+        online.computeIfPresent(roomId, (id, users) -> {
+            // Remove the user once their last session in the room is gone
+            if (users.containsKey(userId)
+                    && users.computeIfPresent(userId, (user, count) -> count > 1 ? count - 1 : null) == null) {
+                Map<Long, Long> typers = typing.get(roomId);
+                if (typers != null) {
+                    typers.remove(userId);
+                }
+                dirtyRooms.add(roomId);
+            }
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    private static Long roomId(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        Matcher matcher = ROOM_TOPIC.matcher(destination);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private record SessionPresence(Long userId, Map<String, Long> subscriptions) {
+        SessionPresence(Long userId) {
+            this(userId, new ConcurrentHashMap<>());
+        }
+    }
+}
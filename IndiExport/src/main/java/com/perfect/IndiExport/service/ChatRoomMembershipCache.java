@@ -0,0 +1,45 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.ChatRoomMembersDto;
+import com.perfect.IndiExport.repository.ChatRoomRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+
+// Buyer and seller of each chat room, in front of ChatRoomRepository. A room's participants are
+// fixed when it is created, so entries never go stale and only the size bound drops them (least
+// recently used first). Sends and membership checks read this instead of loading the room.
+@Component
+public class ChatRoomMembershipCache {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final int maxEntries;
+
+    // Guarded by this; access order, so iteration starts at the least recently used room
+    private final LinkedHashMap<Long, ChatRoomMembersDto> byRoomId = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ChatRoomMembershipCache(ChatRoomRepository chatRoomRepository,
+            @Value("${indiexport.chat.room-cache-max-entries:50000}") int maxEntries) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    public ChatRoomMembersDto get(Long roomId) {
+        synchronized (this) {
+            ChatRoomMembersDto members = byRoomId.get(roomId);
+            if (members != null) {
+                return members;
+            }
+        }
+        ChatRoomMembersDto members = chatRoomRepository.findMembersById(roomId)
+                .orElseThrow(() -> new RuntimeException("Chat room not found"));
+        synchronized (this) {
+            byRoomId.put(roomId, members);
+            while (byRoomId.size() > maxEntries) {
+                byRoomId.remove(byRoomId.keySet().iterator().next());
+            }
+        }
+        return members;
+    }
+}
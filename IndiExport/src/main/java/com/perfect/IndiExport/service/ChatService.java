@@ -1,15 +1,24 @@
 package com.perfect.IndiExport.service;
 
 import com.perfect.IndiExport.dto.ChatMessageDto;
+import com.perfect.IndiExport.dto.ChatMessagePageDto;
 import com.perfect.IndiExport.dto.ChatRoomDto;
+import com.perfect.IndiExport.dto.ChatRoomMembersDto;
+import com.perfect.IndiExport.dto.ReadReceiptDto;
 import com.perfect.IndiExport.dto.SendMessageRequest;
 import com.perfect.IndiExport.entity.*;
 import com.perfect.IndiExport.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,22 +32,20 @@ public class ChatService {
     private final SellerRepository sellerRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChatMessageWriter messageWriter;
+    private final ChatInboxPublisher inboxPublisher;
+    private final ChatAttachmentCache attachmentCache;
+    private final ChatRoomMembershipCache membershipCache;
+    private final TransactionTemplate transactionTemplate;
 
     public List<ChatRoomDto> getSellerChatRooms(User user) {
-        Seller seller = sellerRepository.findById(user.getId())
-                .orElseThrow(() -> new RuntimeException("Seller profile not found"));
-
-        List<ChatRoom> rooms = chatRoomRepository.findBySellerIdOrderByUpdatedAtDesc(seller.getId());
-        return rooms.stream()
-                .map(room -> mapToDto(room, user))
-                .collect(Collectors.toList());
+        // Seller ids are the owning user's id; sellers see unread messages sent by buyers
+        return chatRoomRepository.findRoomSummariesBySellerId(user.getId(), ChatMessage.MessageType.BUYER);
     }
 
     public List<ChatRoomDto> getBuyerChatRooms(User user) {
-        List<ChatRoom> rooms = chatRoomRepository.findByBuyerIdOrderByUpdatedAtDesc(user.getId());
-        return rooms.stream()
-                .map(room -> mapToDto(room, user))
-                .collect(Collectors.toList());
+        return chatRoomRepository.findRoomSummariesByBuyerId(user.getId(), ChatMessage.MessageType.SELLER);
     }
 
     public ChatRoomDto getOrCreateChatRoom(User user, Long inquiryId) {
@@ -76,12 +83,22 @@ public class ChatService {
                         java.util.Objects.requireNonNull(chatMessageRepository.save(initialMessage));
                     }
 
+                    eventPublisher.publishEvent(new SellerActivityEvent(inquiry.getSeller().getId(),
+                            SellerActivityEvent.Type.CHAT_STARTED));
+
                     return savedRoom;
                 });
 
         return mapToDto(room, user);
     }
 
+    // Throws unless the user is the buyer or the seller of the room
+    public void verifyParticipant(User user, Long chatRoomId) {
+        if (!membershipCache.get(chatRoomId).includes(user.getId())) {
+            throw new RuntimeException("Access denied");
+        }
+    }
+
     public List<ChatMessageDto> getChatMessages(User user, Long chatRoomId) {
         ChatRoom room = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new RuntimeException("Chat room not found"));
@@ -93,30 +110,71 @@ public class ChatService {
 
         List<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderByCreatedAtAsc(chatRoomId);
         return messages.stream()
-                .map(this::mapMessageToDto)
+                .map(message -> mapMessageToDto(message, room))
                 .collect(Collectors.toList());
     }
 
-    @Transactional
-    public ChatMessageDto sendMessage(User user, Long chatRoomId, SendMessageRequest request, boolean isSeller) {
+    // Keyset page of messages. With no cursor the newest page is returned; "before" walks back
+    // through older history and "after" picks up messages newer than the last one seen.
+    public ChatMessagePageDto getChatMessagesPage(User user, Long chatRoomId, Long before, Long after, int size) {
+        if (before != null && after != null) {
+            throw new RuntimeException("Use either before or after, not both");
+        }
+
         ChatRoom room = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new RuntimeException("Chat room not found"));
 
-        // Verify access
-        if (isSeller) {
-            Seller seller = sellerRepository.findById(user.getId())
-                    .orElseThrow(() -> new RuntimeException("Seller profile not found"));
-            if (!room.getSeller().getId().equals(seller.getId())) {
-                throw new RuntimeException("Access denied");
-            }
+        // Verify access: user must be either the buyer or the seller of this room
+        if (!room.getSeller().getId().equals(user.getId()) && !room.getBuyer().getId().equals(user.getId())) {
+            throw new RuntimeException("Access denied");
+        }
+
+        PageRequest page = PageRequest.of(0, size);
+        List<ChatMessage> messages;
+        Slice<ChatMessage> slice;
+        if (after != null) {
+            slice = chatMessageRepository.findPageAfter(chatRoomId, after, page);
+            messages = slice.getContent();
         } else {
-            if (!room.getBuyer().getId().equals(user.getId())) {
-                throw new RuntimeException("Access denied");
-            }
+            slice = chatMessageRepository.findPageBefore(chatRoomId, before != null ? before : Long.MAX_VALUE, page);
+            messages = new ArrayList<>(slice.getContent());
+            Collections.reverse(messages);
+        }
+
+        List<ChatMessageDto> content = messages.stream()
+                .map(message -> mapMessageToDto(message, room))
+                .collect(Collectors.toList());
+
+        // Continue from the far end of the page in the direction being walked
+        Long nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            nextCursor = after != null
+                    ? content.get(content.size() - 1).getId()
+                    : content.get(0).getId();
+        }
+        return new ChatMessagePageDto(content, nextCursor, slice.hasNext());
+    }
+
+    // Not transactional: in low-latency mode a text send is checked against cached room members
+    // and ids from memory, and never waits on the database. The synchronous mode opens its own
+    // transaction for the insert.
+    public ChatMessageDto sendMessage(User user, Long chatRoomId, SendMessageRequest request, boolean isSeller) {
+        // Verify access - seller ids are the owning user's id
+        ChatRoomMembersDto members = membershipCache.get(chatRoomId);
+        Long participantId = isSeller ? members.getSellerId() : members.getBuyerId();
+        if (!participantId.equals(user.getId())) {
+            throw new RuntimeException("Access denied");
+        }
+
+        // Attachments are referenced by id and must have been uploaded to this room
+        ChatAttachment attachment = null;
+        if (request.getAttachmentId() != null) {
+            attachment = attachmentCache.findInRoom(request.getAttachmentId(), chatRoomId)
+                    .orElseThrow(() -> new RuntimeException("Attachment not found"));
         }
 
         // Check if seller is BASIC and trying to send file
-        if (isSeller && (request.getFileName() != null || request.getFileUrl() != null)) {
+        if (isSeller && attachment != null) {
             Seller seller = sellerRepository.findById(user.getId())
                     .orElseThrow(() -> new RuntimeException("Seller profile not found"));
             if ("BASIC".equals(seller.getSellerMode())) {
@@ -125,26 +183,65 @@ public class ChatService {
             }
         }
 
+        // message is NOT NULL; an attachment-only send stores empty text
+        String text = request.getMessage() != null ? request.getMessage() : "";
+        if (text.isBlank() && attachment == null) {
+            throw new RuntimeException("Message cannot be empty");
+        }
+
+        ChatMessage.MessageType senderType = isSeller ? ChatMessage.MessageType.SELLER : ChatMessage.MessageType.BUYER;
+
+        // Low-latency mode: broadcast straight away and leave the insert to the batching writer
+        if (messageWriter.isEnabled()) {
+            ChatMessageDto accepted = new ChatMessageDto();
+            accepted.setChatRoomId(chatRoomId);
+            accepted.setSenderId(user.getId());
+            accepted.setSenderName(user.getName());
+            accepted.setSenderType(senderType);
+            accepted.setMessage(text);
+            if (attachment != null) {
+                accepted.setAttachmentId(attachment.getId());
+                accepted.setFileName(attachment.getFileName());
+                accepted.setFileUrl(ChatAttachmentService.downloadUrl(attachment.getId()));
+            }
+            accepted.setIsRead(false);
+            accepted.setCreatedAt(java.time.LocalDateTime.now());
+            ChatMessageDto messageDto = messageWriter.submit(accepted);
+            messagingTemplate.convertAndSend("/topic/chat/" + chatRoomId, messageDto);
+            return messageDto;
+        }
+
+        ChatAttachment stored = attachment;
+        return transactionTemplate.execute(status -> persistMessage(user, chatRoomId, senderType, text, stored));
+    }
+
+    private ChatMessageDto persistMessage(User user, Long chatRoomId, ChatMessage.MessageType senderType,
+            String text, ChatAttachment attachment) {
+        ChatRoom room = chatRoomRepository.findById(chatRoomId)
+                .orElseThrow(() -> new RuntimeException("Chat room not found"));
+
         ChatMessage message = ChatMessage.builder()
                 .chatRoom(room)
                 .sender(user)
-                .senderType(isSeller ? ChatMessage.MessageType.SELLER : ChatMessage.MessageType.BUYER)
-                .message(request.getMessage())
-                .fileName(request.getFileName())
-                .fileUrl(request.getFileUrl())
+                .senderType(senderType)
+                .message(text)
+                .attachmentId(attachment != null ? attachment.getId() : null)
+                .fileName(attachment != null ? attachment.getFileName() : null)
+                .fileUrl(attachment != null ? ChatAttachmentService.downloadUrl(attachment.getId()) : null)
                 .isRead(false)
                 .build();
 
         ChatMessage saved = chatMessageRepository.save(message);
 
-        // Update room's updatedAt
-        room.setUpdatedAt(java.time.LocalDateTime.now());
-        chatRoomRepository.save(room);
+        // Update room's updatedAt - a targeted UPDATE so a stale copy of the room
+        // cannot roll back a read cursor the other party just advanced
+        chatRoomRepository.touch(chatRoomId, java.time.LocalDateTime.now());
 
-        ChatMessageDto messageDto = mapMessageToDto(saved);
+        ChatMessageDto messageDto = mapMessageToDto(saved, room);
 
         // Send via WebSocket
         messagingTemplate.convertAndSend("/topic/chat/" + chatRoomId, messageDto);
+        inboxPublisher.publishNewMessage(messageDto);
 
         return messageDto;
     }
@@ -154,53 +251,47 @@ public class ChatService {
         ChatRoom room = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new RuntimeException("Chat room not found"));
 
-        // Determine message type to mark as read (opposite of current user)
-        ChatMessage.MessageType targetType = room.getBuyer().getId().equals(user.getId())
-                ? ChatMessage.MessageType.SELLER
-                : ChatMessage.MessageType.BUYER;
-
-        List<ChatMessage> unreadMessages = chatMessageRepository.findByChatRoomIdOrderByCreatedAtAsc(chatRoomId)
-                .stream()
-                .filter(msg -> msg.getSenderType() == targetType && !msg.getIsRead())
-                .collect(Collectors.toList());
+        boolean isBuyer = room.getBuyer().getId().equals(user.getId());
+        if (!isBuyer && !room.getSeller().getId().equals(user.getId())) {
+            throw new RuntimeException("Access denied");
+        }
 
-        unreadMessages.forEach(msg -> msg.setIsRead(true));
-        chatMessageRepository.saveAll(unreadMessages);
+        // Reading the room moves this participant's cursor to the newest message; messages stay untouched
+        Long latestMessageId = chatMessageRepository.findLatestIdByChatRoomId(chatRoomId);
+        if (latestMessageId == null) {
+            return;
+        }
+        int updated = isBuyer
+                ? chatRoomRepository.advanceBuyerReadCursor(chatRoomId, latestMessageId)
+                : chatRoomRepository.advanceSellerReadCursor(chatRoomId, latestMessageId);
+
+        // Let the other party update their ticks without re-fetching the history
+        if (updated > 0) {
+            ChatMessage.MessageType readerType = isBuyer
+                    ? ChatMessage.MessageType.BUYER
+                    : ChatMessage.MessageType.SELLER;
+            messagingTemplate.convertAndSend("/topic/chat/" + chatRoomId,
+                    new ReadReceiptDto(chatRoomId, user.getId(), readerType, latestMessageId));
+            inboxPublisher.publishRead(chatRoomId);
+        }
     }
 
     private ChatRoomDto mapToDto(ChatRoom room, User currentUser) {
-        ChatRoomDto dto = new ChatRoomDto();
-        dto.setId(room.getId());
-        dto.setInquiryId(room.getInquiry().getId());
-        dto.setBuyerId(room.getBuyer().getId());
-        dto.setBuyerName(room.getBuyer().getName());
-        dto.setSellerId(room.getSeller().getId());
-        dto.setSellerBusinessName(room.getSeller().getBusinessName());
-        dto.setProductId(room.getInquiry().getProduct().getId());
-        dto.setProductName(room.getInquiry().getProduct().getName());
-        dto.setIsActive(room.getIsActive());
-        dto.setCreatedAt(room.getCreatedAt());
-        dto.setUpdatedAt(room.getUpdatedAt());
-
-        // Get unread count - count messages from the other party
+        // Count unread messages from the other party
         boolean isBuyer = room.getBuyer().getId().equals(currentUser.getId());
-        ChatMessage.MessageType targetType = isBuyer
+        ChatMessage.MessageType unreadFrom = isBuyer
                 ? ChatMessage.MessageType.SELLER
                 : ChatMessage.MessageType.BUYER;
-        long unreadCount = chatMessageRepository.countByChatRoomIdAndIsReadFalseAndSenderType(
-                room.getId(), targetType);
-        dto.setUnreadCount(unreadCount);
-
-        // Get last message time
-        List<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderByCreatedAtAsc(room.getId());
-        if (!messages.isEmpty()) {
-            dto.setLastMessageAt(messages.get(messages.size() - 1).getCreatedAt());
-        }
+        return chatRoomRepository.findRoomSummaryById(room.getId(), unreadFrom, readCursor(room, isBuyer))
+                .orElseThrow(() -> new RuntimeException("Chat room not found"));
+    }
 
-        return dto;
+    private static long readCursor(ChatRoom room, boolean buyer) {
+        Long cursor = buyer ? room.getBuyerLastReadMessageId() : room.getSellerLastReadMessageId();
+        return cursor != null ? cursor : 0L;
     }
 
-    private ChatMessageDto mapMessageToDto(ChatMessage message) {
+    private ChatMessageDto mapMessageToDto(ChatMessage message, ChatRoom room) {
         ChatMessageDto dto = new ChatMessageDto();
         dto.setId(message.getId());
         dto.setChatRoomId(message.getChatRoom().getId());
@@ -208,9 +299,12 @@ public class ChatService {
         dto.setSenderName(message.getSender().getName());
         dto.setSenderType(message.getSenderType());
         dto.setMessage(message.getMessage());
+        dto.setAttachmentId(message.getAttachmentId());
         dto.setFileName(message.getFileName());
         dto.setFileUrl(message.getFileUrl());
-        dto.setIsRead(message.getIsRead());
+        // Read once the recipient's cursor has reached it
+        boolean sentByBuyer = message.getSenderType() == ChatMessage.MessageType.BUYER;
+        dto.setIsRead(message.getId() <= readCursor(room, !sentByBuyer));
         dto.setCreatedAt(message.getCreatedAt());
         return dto;
     }
@@ -13,6 +13,7 @@ import com.perfect.IndiExport.repository.InquiryRepository;
 import com.perfect.IndiExport.repository.ProductRepository;
 import com.perfect.IndiExport.repository.SellerRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +28,7 @@ public class InquiryService {
     private final SellerRepository sellerRepository;
     private final ProductRepository productRepository;
     private final BuyerRepository buyerRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<InquiryDto> getSellerInquiries(User user) {
         Seller seller = sellerRepository.findById(user.getId())
@@ -163,6 +165,7 @@ public class InquiryService {
                 .build();
 
         Inquiry saved = java.util.Objects.requireNonNull(inquiryRepository.save(inquiry));
+        eventPublisher.publishEvent(new SellerActivityEvent(seller.getId(), SellerActivityEvent.Type.INQUIRY_CREATED));
         return mapToDto(saved);
     }
 
@@ -199,6 +202,8 @@ public class InquiryService {
         // Release reserved stock - REMOVED
 
         inquiryRepository.delete(inquiry);
+        eventPublisher.publishEvent(new SellerActivityEvent(inquiry.getSeller().getId(),
+                SellerActivityEvent.Type.INQUIRY_DELETED));
     }
 
     private InquiryDto mapToDto(Inquiry inquiry) {
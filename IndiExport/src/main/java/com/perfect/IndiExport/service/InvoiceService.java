@@ -6,6 +6,7 @@ import com.perfect.IndiExport.entity.*;
 import com.perfect.IndiExport.repository.*;
 import com.perfect.IndiExport.util.InvoicePdfGenerator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +28,7 @@ public class InvoiceService {
     private final ProductRepository productRepository;
     private final ProductService productService;
     private final InvoicePdfGenerator pdfGenerator;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public InvoiceDto generateInvoice(User user, GenerateInvoiceRequest request) {
@@ -91,6 +93,7 @@ public class InvoiceService {
                 .build();
 
         Invoice saved = java.util.Objects.requireNonNull(invoiceRepository.save(invoice));
+        eventPublisher.publishEvent(new SellerActivityEvent(seller.getId(), SellerActivityEvent.Type.INVOICE_GENERATED));
         return mapToDto(saved);
     }
 
@@ -149,6 +152,7 @@ public class InvoiceService {
                 .build();
 
         Invoice saved = java.util.Objects.requireNonNull(invoiceRepository.save(invoice));
+        eventPublisher.publishEvent(new SellerActivityEvent(seller.getId(), SellerActivityEvent.Type.INVOICE_GENERATED));
         return mapToDto(saved);
     }
 
@@ -0,0 +1,95 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.LoginRequest;
+import com.perfect.IndiExport.dto.LoginResponse;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.UserRepository;
+import com.perfect.IndiExport.util.JwtUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Password checks are deliberately slow (bcrypt), so logins run on their own bounded pool
+// instead of servlet threads. A login storm fills this pool's queue and is turned away with
+// LoginBusyException, while the rest of the API keeps its request threads.
+@Service
+@Slf4j
+public class LoginService {
+
+    private final AuthenticationManager authenticationManager;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    public static class LoginBusyException extends RuntimeException {
+        public LoginBusyException() {
+            super("Too many login attempts right now, please try again");
+        }
+    }
+
+    public LoginService(AuthenticationManager authenticationManager, UserRepository userRepository, JwtUtil jwtUtil,
+            @Value("${indiexport.auth.login-threads:0}") int threads,
+            @Value("${indiexport.auth.login-queue-capacity:200}") int queueCapacity) {
+        this.authenticationManager = authenticationManager;
+        this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        // 0 = one thread per core; bcrypt is CPU bound, so more threads only add queueing
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejected.increment();
+                    throw new LoginBusyException();
+                });
+    }
+
+    // Completes with BadCredentialsException for a wrong email or password
+    public CompletableFuture<LoginResponse> login(LoginRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+
+            User user = userRepository.findByEmail(request.getEmail())
+                    .orElseThrow(() -> new BadCredentialsException("Invalid email or password"));
+            return new LoginResponse(jwtUtil.generateToken(user), user.getRole().name());
+        }, executor);
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${indiexport.auth.login-stats-log-ms:300000}")
+    public void logStats() {
+        log.info("Login pool: queueDepth={}, active={}, completed={}, rejected={}",
+                queueDepth(), executor.getActiveCount(), executor.getCompletedTaskCount(), rejectedCount());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
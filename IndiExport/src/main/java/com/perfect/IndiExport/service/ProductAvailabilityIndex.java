@@ -0,0 +1,157 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.repository.ProductSellingCountryRepository;
+import com.perfect.IndiExport.util.CountryUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Which countries each product is sold in, as a bitset over the dense country ids from CountryUtil.
+// Bitsets are never mutated after being published, so readers need no locking.
+//
+// Changes made on this node are applied after commit. Every node keeps its own copy, though, so a
+// change made on another node only arrives here by reloading: an entry older than the TTL is read
+// again from product_selling_countries before it is trusted. Staleness is bounded by the TTL.
+@Component
+@Slf4j
+public class ProductAvailabilityIndex {
+
+    // Keeps the IN list of a reload well under driver parameter limits
+    private static final int RELOAD_BATCH_SIZE = 1000;
+
+    private final ProductSellingCountryRepository sellingCountryRepository;
+    private final long ttlMillis;
+
+    private final Map<Long, Entry> productCountries = new ConcurrentHashMap<>();
+
+    public ProductAvailabilityIndex(ProductSellingCountryRepository sellingCountryRepository,
+            @Value("${indiexport.products.availability-ttl-seconds:60}") long ttlSeconds) {
+        this.sellingCountryRepository = sellingCountryRepository;
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, Entry> loaded = toEntries(sellingCountryRepository.findAllProductIdAndCountryCode());
+        // Writes that landed while we were loading are newer than what we read
+        loaded.forEach(productCountries::putIfAbsent);
+        log.info("Product availability index loaded for {} products", loaded.size());
+    }
+
+    // Replaces the full set of selling countries for a product
+    public void put(Long productId, Collection<String> countryCodes) {
+        BitSet bits = new BitSet(CountryUtil.getCountryCount());
+        for (String code : countryCodes) {
+            int countryIndex = CountryUtil.getCountryIndex(code);
+            if (countryIndex >= 0) {
+                bits.set(countryIndex);
+            }
+        }
+        productCountries.put(productId, new Entry(bits, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.sellingCountries() != null) {
+            put(event.productId(), event.sellingCountries());
+        }
+    }
+
+    // Empty when the index cannot answer: a country code outside CountryUtil
+    public Optional<Boolean> isAvailable(Long productId, String countryCode) {
+        int countryIndex = CountryUtil.getCountryIndex(countryCode);
+        if (countryIndex < 0) {
+            return Optional.empty();
+        }
+        BitSet bits = current(List.of(productId)).get(productId);
+        return Optional.of(bits != null && bits.get(countryIndex));
+    }
+
+    // Drops ids that are not sold in the country
+    public List<Long> retainAvailable(List<Long> productIds, String countryCode) {
+        int countryIndex = CountryUtil.getCountryIndex(countryCode);
+        if (countryIndex < 0) {
+            return productIds;
+        }
+        Map<Long, BitSet> bitsById = current(productIds);
+        List<Long> available = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            BitSet bits = bitsById.get(productId);
+            if (bits != null && bits.get(countryIndex)) {
+                available.add(productId);
+            }
+        }
+        return available;
+    }
+
+    // Bitsets for the given products, reloading missing and expired entries in one query
+    private Map<Long, BitSet> current(List<Long> productIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, BitSet> bitsById = new HashMap<>();
+        Map<Long, Entry> stale = new HashMap<>();
+        List<Long> toLoad = new ArrayList<>();
+        for (Long productId : productIds) {
+            Entry entry = productCountries.get(productId);
+            if (entry != null && entry.expiresAt() > now) {
+                bitsById.put(productId, entry.bits());
+            } else {
+                stale.put(productId, entry);
+                toLoad.add(productId);
+            }
+        }
+        if (toLoad.isEmpty()) {
+            return bitsById;
+        }
+
+        Map<Long, Entry> loaded = new HashMap<>();
+        for (int from = 0; from < toLoad.size(); from += RELOAD_BATCH_SIZE) {
+            loaded.putAll(toEntries(sellingCountryRepository.findProductIdAndCountryCodeByProductIdIn(
+                    toLoad.subList(from, Math.min(from + RELOAD_BATCH_SIZE, toLoad.size())))));
+        }
+        Entry none = new Entry(new BitSet(), now + ttlMillis);
+        for (Long productId : toLoad) {
+            Entry fresh = loaded.getOrDefault(productId, none);
+            bitsById.put(productId, fresh.bits());
+            // Only replace what we judged stale; a change applied meanwhile is newer than our read
+            Entry previous = stale.get(productId);
+            if (previous == null) {
+                productCountries.putIfAbsent(productId, fresh);
+            } else {
+                productCountries.replace(productId, previous, fresh);
+            }
+        }
+        return bitsById;
+    }
+
+    private Map<Long, Entry> toEntries(List<Object[]> rows) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        Map<Long, BitSet> bitsById = new HashMap<>();
+        for (Object[] row : rows) {
+            Long productId = (Long) row[0];
+            int countryIndex = CountryUtil.getCountryIndex((String) row[1]);
+            BitSet bits = bitsById.computeIfAbsent(productId, id -> new BitSet(CountryUtil.getCountryCount()));
+            if (countryIndex >= 0) {
+                bits.set(countryIndex);
+            }
+        }
+        Map<Long, Entry> entries = new HashMap<>();
+        bitsById.forEach((productId, bits) -> entries.put(productId, new Entry(bits, expiresAt)));
+        return entries;
+    }
+
+    private record Entry(BitSet bits, long expiresAt) {
+    }
+}
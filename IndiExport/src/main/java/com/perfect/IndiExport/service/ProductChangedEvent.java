@@ -0,0 +1,20 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.Product;
+
+import java.util.Collection;
+
+// Published when a product's searchable fields, browsability or selling countries change.
+// The in-memory indexes and the owning seller's analytics snapshot apply it after commit, so a
+// rolled-back write never reaches them.
+// product == null drops the product from search; sellingCountries == null leaves availability as is.
+public record ProductChangedEvent(Long productId, Long sellerId, Product product, Collection<String> sellingCountries) {
+
+    public static ProductChangedEvent indexed(Product product) {
+        return new ProductChangedEvent(product.getId(), product.getSeller().getId(), product, null);
+    }
+
+    public static ProductChangedEvent removed(Long productId, Long sellerId) {
+        return new ProductChangedEvent(productId, sellerId, null, null);
+    }
+}
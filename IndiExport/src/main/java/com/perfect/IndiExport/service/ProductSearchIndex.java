@@ -0,0 +1,267 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.Product;
+import com.perfect.IndiExport.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over product name, description and category, ranked with BM25.
+// Only browsable products (status ACTIVE and active flag set) are indexed; callers still
+// re-check eligibility and country in the database, so a stale entry never leaks into results.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Prefix-only hits ("tea" -> "teapot") count for less than exact term hits,
+    // and hits inside a word ("ssam" -> "assam") for less again
+    private static final double PREFIX_MATCH_WEIGHT = 0.5;
+    private static final double INFIX_MATCH_WEIGHT = 0.25;
+    // Word interiors are indexed by trigram; shorter query terms would match inside far too many words
+    private static final int MIN_INFIX_LENGTH = 3;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (productId -> term frequency)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // trigram -> indexed terms containing it, so infix lookups never walk the vocabulary
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    // productId -> term frequencies, kept so a document can be removed or replaced
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByTrigram.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+            products.forEach(this::indexLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built with {} products", documents.size());
+    }
+
+    // Adds, replaces or removes the product depending on whether it is browsable
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.product() != null) {
+            index(event.product());
+        } else {
+            remove(event.productId());
+        }
+    }
+
+    // Ids of products matching every query term, best BM25 score first.
+    // A term also matches as a prefix, so "tea" finds "teapot", or inside a word, so "ssam" finds "assam".
+    public List<Long> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return Collections.emptyList();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = scoreTerm(term, documentCount, averageLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Every query term must match
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            List<Long> ids = new ArrayList<>(ranked.size());
+            ranked.forEach(entry -> ids.add(entry.getKey()));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(String term, int documentCount, double averageLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        // Every expansion is scored: cutting the list short would drop matches by alphabetical order
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            double weight = entry.getKey().equals(term) ? 1.0 : PREFIX_MATCH_WEIGHT;
+            scorePostings(entry.getValue(), weight, documentCount, averageLength, scores);
+        }
+        if (term.length() >= MIN_INFIX_LENGTH) {
+            // Prefix hits were scored above
+            for (String candidate : infixCandidates(term)) {
+                if (!candidate.startsWith(term) && candidate.contains(term)) {
+                    scorePostings(postings.get(candidate), INFIX_MATCH_WEIGHT, documentCount, averageLength, scores);
+                }
+            }
+        }
+        return scores;
+    }
+
+    // Terms containing every trigram of the query term: a superset of the terms containing it
+    private Set<String> infixCandidates(String term) {
+        List<Set<String>> sets = new ArrayList<>();
+        for (String trigram : trigrams(term)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            sets.add(terms);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<String> candidates = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(sets.get(i));
+        }
+        return candidates;
+    }
+
+    private void scorePostings(Map<Long, Integer> postingList, double weight, int documentCount,
+            double averageLength, Map<Long, Double> scores) {
+        double idf = Math.log(1 + (documentCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+        for (Map.Entry<Long, Integer> posting : postingList.entrySet()) {
+            int tf = posting.getValue();
+            int length = documentLengths.get(posting.getKey());
+            double score = weight * idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / averageLength));
+            // A product matching several expansions of the same term keeps its best one
+            scores.merge(posting.getKey(), score, Math::max);
+        }
+    }
+
+    private void indexLocked(Product product) {
+        removeLocked(product.getId());
+        if (!"ACTIVE".equals(product.getStatus()) || !product.isActive()) {
+            return;
+        }
+
+        List<String> tokens = new ArrayList<>();
+        tokens.addAll(tokenize(product.getName()));
+        tokens.addAll(tokenize(product.getDescription()));
+        tokens.addAll(tokenize(product.getCategory()));
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> {
+            trigrams(t).forEach(trigram -> termsByTrigram.computeIfAbsent(trigram, g -> new HashSet<>()).add(t));
+            return new HashMap<>();
+        }).put(product.getId(), tf));
+
+        documents.put(product.getId(), frequencies);
+        documentLengths.put(product.getId(), tokens.size());
+        totalLength += tokens.size();
+    }
+
+    private void removeLocked(Long productId) {
+        Map<String, Integer> frequencies = documents.remove(productId);
+        if (frequencies == null) {
+            return;
+        }
+        for (String term : frequencies.keySet()) {
+            Map<Long, Integer> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(productId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                    for (String trigram : trigrams(term)) {
+                        Set<String> terms = termsByTrigram.get(trigram);
+                        if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                            termsByTrigram.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+        totalLength -= documentLengths.remove(productId);
+    }
+
+    private static Set<String> trigrams(String term) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            trigrams.add(term.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
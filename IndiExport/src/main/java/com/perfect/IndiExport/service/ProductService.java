@@ -1,29 +1,35 @@
 package com.perfect.IndiExport.service;
 
 import com.perfect.IndiExport.dto.ProductDto;
+import com.perfect.IndiExport.dto.ProductPageDto;
 import com.perfect.IndiExport.entity.Buyer;
 import com.perfect.IndiExport.entity.Product;
 import com.perfect.IndiExport.entity.ProductSellingCountry;
-import com.perfect.IndiExport.entity.ProductViewTracking;
 import com.perfect.IndiExport.entity.Seller;
 import com.perfect.IndiExport.entity.User;
 import com.perfect.IndiExport.repository.BuyerRepository;
 import com.perfect.IndiExport.repository.ProductRepository;
 import com.perfect.IndiExport.repository.ProductSellingCountryRepository;
-import com.perfect.IndiExport.repository.ProductViewTrackingRepository;
 import com.perfect.IndiExport.repository.SellerRepository;
 import com.perfect.IndiExport.util.CountryUtil;
 import com.perfect.IndiExport.util.CurrencyUtil;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -35,8 +41,14 @@ public class ProductService {
     private final SellerRepository sellerRepository;
     private final ProductSellingCountryRepository sellingCountryRepository;
     private final BuyerRepository buyerRepository;
-    private final ProductViewTrackingRepository viewTrackingRepository;
+    private final ProductViewBuffer viewBuffer;
     private final EntityManager entityManager;
+    private final ProductSearchIndex searchIndex;
+    private final ProductAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int SEARCH_BATCH_SIZE = 200;
+    private static final int COUNTRY_FETCH_BATCH_SIZE = 1000;
 
     @Transactional
     public ProductDto addProduct(User user, ProductDto dto) {
@@ -87,14 +99,23 @@ public class ProductService {
             }
         }
 
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), seller.getId(), saved, saved.getSellingCountries().stream()
+                .map(ProductSellingCountry::getCountryCode)
+                .collect(Collectors.toList())));
         return mapToDto(saved);
     }
 
     public List<ProductDto> getSellerProducts(User user) {
-        return productRepository.findBySellerId(user.getId())
-                .stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return mapToDtos(productRepository.findBySellerId(user.getId()));
+    }
+
+    public ProductDto getSellerProductDetails(User user, Long productId) {
+        Product product = productRepository.findByIdAndSellerId(productId, user.getId())
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+
+        return mapToDto(product, product.getSellingCountries().stream()
+                .map(ProductSellingCountry::getCountryCode)
+                .collect(Collectors.toList()));
     }
 
     @Transactional
@@ -126,6 +147,7 @@ public class ProductService {
             product.setDeclaredStock(dto.getDeclaredStock());
 
         // Update selling countries
+        Set<String> updatedCountryCodes = null;
         if (dto.getSellingCountries() != null) {
             // Remove duplicates and filter empty values
             Set<String> uniqueCountryCodes = dto.getSellingCountries().stream()
@@ -167,6 +189,7 @@ public class ProductService {
                 }
                 sellingCountryRepository.saveAll(newCountries);
             }
+            updatedCountryCodes = uniqueCountryCodes;
 
             // Flush to ensure all changes are persisted
             entityManager.flush();
@@ -180,6 +203,8 @@ public class ProductService {
         syncStatusWithStock(updated); // Sync status after update
         updated = productRepository.save(updated);
 
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, updated.getSeller().getId(), updated,
+                updatedCountryCodes));
         return mapToDto(updated);
     }
 
@@ -203,6 +228,7 @@ public class ProductService {
 
         product.setActive(active);
         Product updated = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.indexed(updated));
         return mapToDto(updated);
     }
 
@@ -233,49 +259,82 @@ public class ProductService {
         // Replace hard delete with soft delete (Inactive)
         product.setActive(false);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.removed(productId, product.getSeller().getId()));
     }
 
     @Transactional
     public void reserveStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        int remaining = product.getRemainingStock();
-        if (remaining < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + remaining + ", Requested: " + quantity);
+        if (productRepository.reserveStock(productId, quantity) == 0) {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            throw new RuntimeException("Insufficient stock. Available: " + product.getRemainingStock()
+                    + ", Requested: " + quantity);
         }
-
-        product.setReservedStock(product.getReservedStock() + quantity);
-        syncStatusWithStock(product);
-        productRepository.save(product);
+        afterStockChange(productId);
     }
 
     @Transactional
     public void releaseStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        int currentReserved = product.getReservedStock();
-        int newReserved = Math.max(0, currentReserved - quantity);
-        product.setReservedStock(newReserved);
-        syncStatusWithStock(product);
-        productRepository.save(product);
+        if (productRepository.releaseStock(productId, quantity) == 0) {
+            throw new RuntimeException("Product not found");
+        }
+        afterStockChange(productId);
     }
 
     @Transactional
     public void deductStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
         // Deduct from both declared and reserved
-        product.setDeclaredStock(Math.max(0, product.getDeclaredStock() - quantity));
-        product.setReservedStock(Math.max(0, product.getReservedStock() - quantity));
-        syncStatusWithStock(product);
-        productRepository.save(product);
+        if (productRepository.deductStock(productId, quantity) == 0) {
+            throw new RuntimeException("Product not found");
+        }
+        afterStockChange(productId);
+    }
+
+    private void afterStockChange(Long productId) {
+        if (productRepository.deactivateIfOutOfStock(productId) > 0) {
+            eventPublisher.publishEvent(ProductChangedEvent.removed(productId,
+                    productRepository.findSellerIdById(productId)));
+        }
+        // The bulk updates bypass the persistence context. Re-read the row only if this transaction
+        // already holds the product; an unloaded reference stays lazy and will read the new values.
+        Product product = entityManager.getReference(Product.class, productId);
+        if (Hibernate.isInitialized(product)) {
+            entityManager.refresh(product);
+        }
     }
 
     // Buyer methods - Get products available for buyer's country
     public List<ProductDto> getProductsForBuyer(User buyerUser, String category, String searchTerm) {
+        Buyer buyer = getBuyerWithCountry(buyerUser);
+
+        return mapToDtosForBuyer(
+                findBrowsableProducts(buyer, category, searchTerm, null, Pageable.unpaged()).getContent(),
+                buyer);
+    }
+
+    // Paginated browse - keyset cursor is the id of the last product on the previous page
+    public ProductPageDto getProductsForBuyerPage(User buyerUser, String category, String searchTerm,
+            Long cursor, int size) {
+        Buyer buyer = getBuyerWithCountry(buyerUser);
+
+        Slice<Product> slice = findBrowsableProducts(buyer, category, searchTerm, cursor,
+                PageRequest.of(0, size));
+
+        List<ProductDto> content = mapToDtosForBuyer(slice.getContent(), buyer);
+        Long nextCursor = slice.hasNext() && !content.isEmpty()
+                ? content.get(content.size() - 1).getId()
+                : null;
+
+        return new ProductPageDto(content, nextCursor, slice.hasNext());
+    }
+
+    // Categories for the browse filter - taken from the whole catalogue, not the page on screen
+    public List<String> getBrowseCategoriesForBuyer(User buyerUser) {
+        Buyer buyer = getBuyerWithCountry(buyerUser);
+        return productRepository.findBrowsableCategoriesForCountry(buyer.getCountry().trim().toUpperCase());
+    }
+
+    private Buyer getBuyerWithCountry(User buyerUser) {
         // Get buyer profile to determine country
         Buyer buyer = buyerRepository.findByUserId(buyerUser.getId())
                 .orElseThrow(() -> new RuntimeException("Buyer profile not found. Please complete your profile."));
@@ -284,43 +343,59 @@ public class ProductService {
         if (buyerCountry == null || buyerCountry.isEmpty()) {
             throw new RuntimeException("Buyer country not set. Please update your profile.");
         }
+        return buyer;
+    }
 
-        // Get all active products
-        List<Product> allProducts = productRepository.findAll().stream()
-                .filter(p -> "ACTIVE".equals(p.getStatus()))
-                .filter(Product::isActive) // Filter by hybrid active flag
-                .collect(Collectors.toList());
+    private Slice<Product> findBrowsableProducts(Buyer buyer, String category, String searchTerm,
+            Long cursor, Pageable pageable) {
+        String country = buyer.getCountry().trim().toUpperCase();
+        // Empty string disables the category filter in the query
+        String categoryFilter = category != null ? category.trim().toLowerCase() : "";
 
-        // Filter by buyer's country
-        List<Product> filteredProducts = allProducts.stream()
-                .filter(product -> {
-                    // Check if product is available in buyer's country
-                    List<ProductSellingCountry> countries = sellingCountryRepository.findByProductId(product.getId());
-                    return countries.stream()
-                            .anyMatch(psc -> psc.getCountryCode().equalsIgnoreCase(buyerCountry));
-                })
-                .collect(Collectors.toList());
+        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            return searchBrowsableProducts(country, categoryFilter, searchTerm, cursor, pageable);
+        }
 
-        // Apply category filter
-        if (category != null && !category.isEmpty()) {
-            filteredProducts = filteredProducts.stream()
-                    .filter(p -> category.equalsIgnoreCase(p.getCategory()))
-                    .collect(Collectors.toList());
+        return productRepository.findBrowsableForCountry(
+                country,
+                categoryFilter,
+                cursor != null ? cursor : 0L,
+                pageable);
+    }
+
+    // Search results come ranked from the index; the cursor is the last product id already returned
+    private Slice<Product> searchBrowsableProducts(String country, String categoryFilter, String searchTerm,
+            Long cursor, Pageable pageable) {
+        List<Long> rankedIds = availabilityIndex.retainAvailable(searchIndex.search(searchTerm), country);
+
+        int start = 0;
+        if (cursor != null) {
+            // A cursor that dropped out of the index ends the listing rather than restarting it
+            int position = rankedIds.indexOf(cursor);
+            start = position >= 0 ? position + 1 : rankedIds.size();
         }
 
-        // Apply search filter
-        if (searchTerm != null && !searchTerm.isEmpty()) {
-            String lowerSearch = searchTerm.toLowerCase();
-            filteredProducts = filteredProducts.stream()
-                    .filter(p -> p.getName().toLowerCase().contains(lowerSearch) ||
-                            (p.getDescription() != null && p.getDescription().toLowerCase().contains(lowerSearch)))
-                    .collect(Collectors.toList());
+        // Fetch one more than requested so we know whether another page exists
+        int wanted = pageable.isPaged() ? pageable.getPageSize() + 1 : Integer.MAX_VALUE;
+        List<Product> matches = new ArrayList<>();
+        for (int from = start; from < rankedIds.size() && matches.size() < wanted; from += SEARCH_BATCH_SIZE) {
+            List<Long> batch = rankedIds.subList(from, Math.min(from + SEARCH_BATCH_SIZE, rankedIds.size()));
+            Map<Long, Product> found = productRepository.findBrowsableForCountryByIdIn(batch, country, categoryFilter)
+                    .stream()
+                    .collect(Collectors.toMap(Product::getId, p -> p));
+            for (Long id : batch) {
+                Product product = found.get(id);
+                if (product != null && matches.size() < wanted) {
+                    matches.add(product);
+                }
+            }
         }
 
-        // Map to DTO with currency conversion
-        return filteredProducts.stream()
-                .map(product -> mapToDtoForBuyer(product, buyer))
-                .collect(Collectors.toList());
+        boolean hasNext = pageable.isPaged() && matches.size() > pageable.getPageSize();
+        if (hasNext) {
+            matches = matches.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(matches, pageable, hasNext);
     }
 
     public ProductDto getProductDetailsForBuyer(User buyerUser, Long productId) {
@@ -331,12 +406,7 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
         // Verify product is available in buyer's country
-        String buyerCountry = buyer.getCountry();
-        List<ProductSellingCountry> countries = sellingCountryRepository.findByProductId(productId);
-        boolean isAvailable = countries.stream()
-                .anyMatch(psc -> psc.getCountryCode().equalsIgnoreCase(buyerCountry));
-
-        if (!isAvailable) {
+        if (!isAvailableInCountry(productId, buyer.getCountry())) {
             throw new RuntimeException("This product is not available in your country");
         }
 
@@ -344,39 +414,36 @@ public class ProductService {
             throw new RuntimeException("This product is currently inactive or out of stock");
         }
 
-        // Track product view
-        trackProductView(productId, buyerUser.getId());
+        // Track product view (buffered, written by the scheduled flush)
+        viewBuffer.record(productId, buyerUser.getId());
 
         return mapToDtoForBuyer(product, buyer);
     }
 
-    @Transactional
-    private void trackProductView(Long productId, Long buyerId) {
-        // Check if already viewed today
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endOfDay = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
-
-        boolean alreadyViewed = viewTrackingRepository.existsByProductIdAndBuyerIdAndViewDateBetween(
-                productId, buyerId, startOfDay, endOfDay);
-
-        if (!alreadyViewed) {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-            User buyer = new User();
-            buyer.setId(buyerId);
-
-            ProductViewTracking tracking = ProductViewTracking.builder()
-                    .product(product)
-                    .buyer(buyer)
-                    .viewDate(LocalDateTime.now())
-                    .build();
-
-            viewTrackingRepository.save(tracking);
+    private boolean isAvailableInCountry(Long productId, String countryCode) {
+        if (countryCode == null || countryCode.isEmpty()) {
+            return false;
         }
+        String code = countryCode.trim().toUpperCase();
+        // Bitmap answers for supported countries (reloading entries past their TTL); anything else goes to the DB
+        return availabilityIndex.isAvailable(productId, code)
+                .orElseGet(() -> sellingCountryRepository.existsByProductIdAndCountryCode(productId, code));
+    }
+
+    private List<ProductDto> mapToDtosForBuyer(List<Product> products, Buyer buyer) {
+        Map<Long, List<String>> countriesByProduct = loadSellingCountryCodes(products);
+        return products.stream()
+                .map(product -> mapToDtoForBuyer(product, buyer,
+                        countriesByProduct.getOrDefault(product.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
     }
 
     private ProductDto mapToDtoForBuyer(Product product, Buyer buyer) {
-        ProductDto dto = mapToDto(product);
+        return mapToDtoForBuyer(product, buyer, findSellingCountryCodes(product.getId()));
+    }
+
+    private ProductDto mapToDtoForBuyer(Product product, Buyer buyer, List<String> countryCodes) {
+        ProductDto dto = mapToDto(product, countryCodes);
 
         // Add currency conversion
         String buyerCurrency = buyer.getCurrency() != null ? buyer.getCurrency() : "USD";
@@ -392,7 +459,41 @@ public class ProductService {
         return dto;
     }
 
+    // Maps a list of products with a single selling-country query instead of one per product
+    private List<ProductDto> mapToDtos(List<Product> products) {
+        Map<Long, List<String>> countriesByProduct = loadSellingCountryCodes(products);
+        return products.stream()
+                .map(product -> mapToDto(product, countriesByProduct.getOrDefault(product.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<String>> loadSellingCountryCodes(List<Product> products) {
+        Map<Long, List<String>> countriesByProduct = new HashMap<>();
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toList());
+
+        // Chunked to stay well inside the database's bind-parameter limit
+        for (int from = 0; from < productIds.size(); from += COUNTRY_FETCH_BATCH_SIZE) {
+            List<Long> batch = productIds.subList(from, Math.min(from + COUNTRY_FETCH_BATCH_SIZE, productIds.size()));
+            for (Object[] row : sellingCountryRepository.findProductIdAndCountryCodeByProductIdIn(batch)) {
+                countriesByProduct.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+        return countriesByProduct;
+    }
+
+    private List<String> findSellingCountryCodes(Long productId) {
+        return sellingCountryRepository.findByProductId(productId).stream()
+                .map(ProductSellingCountry::getCountryCode)
+                .collect(Collectors.toList());
+    }
+
     private ProductDto mapToDto(Product product) {
+        return mapToDto(product, findSellingCountryCodes(product.getId()));
+    }
+
+    private ProductDto mapToDto(Product product, List<String> countryCodes) {
         ProductDto dto = new ProductDto();
         dto.setId(product.getId());
         dto.setName(product.getName());
@@ -407,12 +508,6 @@ public class ProductService {
         dto.setReservedStock(product.getReservedStock());
         dto.setRemainingStock(product.getRemainingStock());
         dto.setStockStatus(product.getStockStatus());
-
-        // Fetch and map selling countries
-        List<ProductSellingCountry> countries = sellingCountryRepository.findByProductId(product.getId());
-        List<String> countryCodes = countries.stream()
-                .map(ProductSellingCountry::getCountryCode)
-                .collect(Collectors.toList());
         dto.setSellingCountries(countryCodes);
 
         return dto;
@@ -0,0 +1,140 @@
+package com.perfect.IndiExport.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind buffer for product views. Views are de-duplicated in memory per
+// (product, buyer, day) and batch-inserted by a scheduled flush, so the buyer's
+// product-detail request never waits on product_view_tracking.
+// The buffer is bounded: while the database is unreachable, views past the cap are dropped and counted.
+@Component
+@Slf4j
+public class ProductViewBuffer {
+
+    // view_date holds the start of the day, so the NOT EXISTS guard and the (product_id, buyer_id, view_date)
+    // unique constraint de-duplicate across flushes and application nodes. Plain SQL so it runs on Postgres and H2;
+    // the casts give the select-list parameters a type.
+    private static final String INSERT_VIEW_SQL =
+            "INSERT INTO product_view_tracking (product_id, buyer_id, view_date, created_at) " +
+            "SELECT CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM product_view_tracking " +
+            "WHERE product_id = ? AND buyer_id = ? AND view_date = ?)";
+
+    private static final int MAX_RECORDED_KEYS = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxPending;
+
+    private final Set<ViewKey> pending = ConcurrentHashMap.newKeySet();
+    private final LongAdder dropped = new LongAdder();
+    // Keys already written today; saves re-sending views the database would ignore anyway
+    private final Set<ViewKey> recorded = ConcurrentHashMap.newKeySet();
+    private volatile LocalDate recordedDay = LocalDate.now();
+    private long droppedAtLastFlush;
+
+    public ProductViewBuffer(JdbcTemplate jdbcTemplate,
+                             @Value("${indiexport.views.max-pending:100000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPending = maxPending;
+    }
+
+    public void record(Long productId, Long buyerId) {
+        ViewKey key = new ViewKey(productId, buyerId, LocalDate.now());
+        if (!recorded.contains(key)) {
+            offer(key);
+        }
+    }
+
+    // Views lost to the cap since startup
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${indiexport.views.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(recordedDay) || recorded.size() > MAX_RECORDED_KEYS) {
+            recorded.clear();
+            recordedDay = today;
+        }
+
+        long droppedTotal = dropped.sum();
+        if (droppedTotal > droppedAtLastFlush) {
+            log.warn("Product view buffer full ({} pending): dropped {} views since the last flush",
+                    maxPending, droppedTotal - droppedAtLastFlush);
+            droppedAtLastFlush = droppedTotal;
+        }
+
+        List<ViewKey> batch = drainPending();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_VIEW_SQL, batch, batch.size(), (ps, key) -> {
+                Timestamp viewDate = Timestamp.valueOf(key.day().atStartOfDay());
+                ps.setLong(1, key.productId());
+                ps.setLong(2, key.buyerId());
+                ps.setTimestamp(3, viewDate);
+                ps.setTimestamp(4, now);
+                ps.setLong(5, key.productId());
+                ps.setLong(6, key.buyerId());
+                ps.setTimestamp(7, viewDate);
+            });
+            batch.stream()
+                    .filter(key -> key.day().equals(today))
+                    .forEach(recorded::add);
+        } catch (Exception e) {
+            // Keep the views for the next flush. A row another node inserted between the guard and the insert
+            // fails the batch on the unique constraint; the retry skips it through the guard.
+            log.error("Failed to flush {} product views, will retry", batch.size(), e);
+            batch.forEach(this::offer);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // The size check races with other writers, so the cap can be overshot by a few concurrent records
+    private void offer(ViewKey key) {
+        if (pending.size() >= maxPending) {
+            dropped.increment();
+            return;
+        }
+        pending.add(key);
+    }
+
+    private List<ViewKey> drainPending() {
+        List<ViewKey> batch = new ArrayList<>();
+        Iterator<ViewKey> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    record ViewKey(Long productId, Long buyerId, LocalDate day) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.repository.ProductViewDailyRepository;
+import com.perfect.IndiExport.repository.ProductViewTrackingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+// Keeps product_view_daily current and compacts raw product_view_tracking rows.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductViewRollupJob {
+
+    // Raw rows must outlive the window the rollup re-aggregates (yesterday and today)
+    private static final int MIN_RETENTION_DAYS = 2;
+
+    private final ProductViewDailyRepository dailyRepository;
+    private final ProductViewTrackingRepository trackingRepository;
+
+    @Value("${indiexport.views.raw-retention-days:90}")
+    private int rawRetentionDays;
+
+    // First day that still needs re-aggregation; null until the first run
+    private LocalDate rollUpFrom;
+
+    @Scheduled(fixedDelayString = "${indiexport.views.rollup-interval-ms:300000}")
+    @Transactional
+    public synchronized void rollUp() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = rollUpFrom != null ? rollUpFrom : startingDay();
+        // Yesterday is always refreshed so views flushed just after midnight are counted
+        if (from.isAfter(today.minusDays(1))) {
+            from = today.minusDays(1);
+        }
+
+        dailyRepository.deleteRebuildableFrom(from);
+        int rows = dailyRepository.insertFromRawViews(from.atStartOfDay());
+        rollUpFrom = today;
+        log.debug("Rolled up product views from {} ({} daily rows)", from, rows);
+    }
+
+    @Scheduled(cron = "${indiexport.views.compaction-cron:0 30 3 * * *}")
+    @Transactional
+    public synchronized void compactRawViews() {
+        LocalDate cutoff = LocalDate.now().minusDays(Math.max(rawRetentionDays, MIN_RETENTION_DAYS));
+        int deleted = trackingRepository.deleteByViewDateBefore(cutoff.atStartOfDay());
+        if (deleted > 0) {
+            log.info("Compacted {} raw product view rows older than {}", deleted, cutoff);
+        }
+    }
+
+    private LocalDate startingDay() {
+        // Resume from the newest rolled-up day, or back-fill everything on a fresh table
+        LocalDate latest = dailyRepository.findLatestViewDay();
+        return latest != null ? latest : LocalDate.of(1970, 1, 1);
+    }
+}
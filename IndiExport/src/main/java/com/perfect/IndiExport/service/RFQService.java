@@ -14,6 +14,7 @@ import com.perfect.IndiExport.repository.RFQRepository;
 import com.perfect.IndiExport.repository.RFQResponseRepository;
 import com.perfect.IndiExport.repository.SellerRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +30,7 @@ public class RFQService {
     private final RFQResponseRepository rfqResponseRepository;
     private final SellerRepository sellerRepository;
     private final BuyerRepository buyerRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<RFQDto> getAvailableRFQs(User user) {
         Seller seller = sellerRepository.findById(user.getId())
@@ -93,6 +95,7 @@ public class RFQService {
                 .build();
 
         RFQResponse saved = rfqResponseRepository.save(response);
+        eventPublisher.publishEvent(new SellerActivityEvent(seller.getId(), SellerActivityEvent.Type.RFQ_RESPONDED));
         return mapResponseToDto(saved);
     }
 
@@ -0,0 +1,13 @@
+package com.perfect.IndiExport.service;
+
+// Published when something a seller's analytics are built from changes
+public record SellerActivityEvent(Long sellerId, Type type) {
+
+    public enum Type {
+        INQUIRY_CREATED,
+        INQUIRY_DELETED,
+        CHAT_STARTED,
+        INVOICE_GENERATED,
+        RFQ_RESPONDED
+    }
+}
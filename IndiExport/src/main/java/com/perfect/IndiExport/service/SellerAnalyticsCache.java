@@ -0,0 +1,98 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.SellerAnalyticsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+// Per-seller analytics snapshots. Entries are dropped as soon as a SellerActivityEvent, a change
+// to one of the seller's products or a change to the seller's user (e.g. onboarding) commits, and
+// otherwise live for the TTL (product views have no event of their own).
+// Least recently used snapshots are dropped beyond the size bound.
+@Component
+public class SellerAnalyticsCache {
+
+    // Eviction generations are striped by seller id so they take fixed memory; sellers sharing
+    // a stripe only cost each other an occasional uncached load
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    // Guarded by this; access order, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    public SellerAnalyticsCache(@Value("${indiexport.analytics.snapshot-ttl-seconds:60}") long ttlSeconds,
+            @Value("${indiexport.analytics.snapshot-max-entries:10000}") int maxEntries) {
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    public SellerAnalyticsDto get(Long sellerId, Supplier<SellerAnalyticsDto> loader) {
+        long generation;
+        synchronized (this) {
+            Snapshot snapshot = snapshots.get(sellerId);
+            if (snapshot != null && snapshot.expiresAt() > System.currentTimeMillis()) {
+                return snapshot.analytics();
+            }
+            snapshots.remove(sellerId);
+            generation = generations[stripe(sellerId)];
+        }
+
+        SellerAnalyticsDto analytics = loader.get();
+
+        synchronized (this) {
+            // An eviction during the load means it may have read rows from before the change
+            if (generations[stripe(sellerId)] == generation) {
+                snapshots.put(sellerId, new Snapshot(analytics, System.currentTimeMillis() + ttlMillis));
+                while (snapshots.size() > maxEntries) {
+                    snapshots.remove(snapshots.keySet().iterator().next());
+                }
+            }
+        }
+        return analytics;
+    }
+
+    public synchronized void evict(Long sellerId) {
+        snapshots.remove(sellerId);
+        generations[stripe(sellerId)]++;
+    }
+
+    synchronized int size() {
+        return snapshots.size();
+    }
+
+    // After commit, so the next read sees the new rows; runs immediately outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSellerActivity(SellerActivityEvent event) {
+        evict(event.sellerId());
+    }
+
+    // Product counts and top products
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.sellerId() != null) {
+            evict(event.sellerId());
+        }
+    }
+
+    // Seller ids are the owning user's id
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.userId() != null) {
+            evict(event.userId());
+        }
+    }
+
+    private static int stripe(Long sellerId) {
+        return Math.floorMod(sellerId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private record Snapshot(SellerAnalyticsDto analytics, long expiresAt) {
+    }
+}
@@ -8,6 +8,7 @@ import com.perfect.IndiExport.repository.SellerRepository;
 import com.perfect.IndiExport.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -16,6 +17,7 @@ public class SellerService {
 
     private final SellerRepository sellerRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Seller onboardSeller(User user, SellerOnboardingRequest request) {
@@ -26,6 +28,7 @@ public class SellerService {
         // Update User Role
         user.setRole(Role.SELLER);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
 
         // Create Seller Profile
         Seller seller = Seller.builder()
@@ -0,0 +1,5 @@
+package com.perfect.IndiExport.service;
+
+// Published when a user's role, name or status may have changed, so cached principals are dropped
+public record UserChangedEvent(Long userId, String email) {
+}
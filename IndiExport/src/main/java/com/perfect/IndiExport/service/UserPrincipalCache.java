@@ -0,0 +1,146 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.config.AuthPrincipal;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+// Current role and status of users, in front of UserRepository. Token claims are only a snapshot
+// from login, so authentication checks them here: an onboarded seller or a deactivated account
+// takes effect within the TTL, and most requests cost no query. Least recently used entries are
+// dropped beyond the size bound; UserChangedEvent drops an entry as soon as the change commits.
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Guarded by this; access order, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> idByEmail = new HashMap<>();
+
+    public UserPrincipalCache(UserRepository userRepository,
+            @Value("${indiexport.auth.user-cache-ttl-seconds:60}") long ttlSeconds,
+            @Value("${indiexport.auth.user-cache-max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+
+    // Empty when the user does not exist or is not active
+    public Optional<AuthPrincipal> findById(Long userId) {
+        Entry entry = cached(userId);
+        if (entry == null) {
+            entry = load(userRepository.findById(userId));
+        }
+        return entry != null ? entry.activePrincipal() : Optional.empty();
+    }
+
+    public Optional<AuthPrincipal> findByEmail(String email) {
+        Long userId;
+        synchronized (this) {
+            userId = idByEmail.get(email);
+        }
+        Entry entry = userId != null ? cached(userId) : null;
+        if (entry == null) {
+            if (userId == null) {
+                misses.increment();
+            }
+            entry = load(userRepository.findByEmail(email));
+        }
+        return entry != null ? entry.activePrincipal() : Optional.empty();
+    }
+
+    public synchronized void evict(Long userId, String email) {
+        Entry removed = userId != null ? byId.remove(userId) : null;
+        if (removed == null && email != null) {
+            Long id = idByEmail.get(email);
+            removed = id != null ? byId.remove(id) : null;
+        }
+        if (removed != null) {
+            idByEmail.remove(removed.principal().getEmail());
+            evictions.increment();
+        }
+    }
+
+    // After commit, so a reload cannot pick up the old row; runs immediately outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.userId(), event.email());
+    }
+
+    @Scheduled(fixedDelayString = "${indiexport.auth.user-cache-stats-log-ms:300000}")
+    public void logStats() {
+        log.info("User principal cache: {}", stats());
+    }
+
+    public Stats stats() {
+        synchronized (this) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), byId.size());
+        }
+    }
+
+    private synchronized Entry cached(Long userId) {
+        Entry entry = byId.get(userId);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            byId.remove(userId);
+            idByEmail.remove(entry.principal().getEmail());
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    private Entry load(Optional<User> user) {
+        if (user.isEmpty()) {
+            return null;
+        }
+        Entry entry = new Entry(AuthPrincipal.of(user.get()), user.get().getStatus(),
+                System.currentTimeMillis() + ttlMillis);
+        synchronized (this) {
+            byId.put(entry.principal().getId(), entry);
+            idByEmail.put(entry.principal().getEmail(), entry.principal().getId());
+            while (byId.size() > maxEntries) {
+                var eldest = byId.entrySet().iterator().next();
+                idByEmail.remove(eldest.getValue().principal().getEmail());
+                byId.remove(eldest.getKey());
+                evictions.increment();
+            }
+        }
+        return entry;
+    }
+
+    private record Entry(AuthPrincipal principal, String status, long expiresAt) {
+
+        // Rows from before the status column count as active
+        Optional<AuthPrincipal> activePrincipal() {
+            return status == null || "ACTIVE".equals(status) ? Optional.of(principal) : Optional.empty();
+        }
+    }
+}
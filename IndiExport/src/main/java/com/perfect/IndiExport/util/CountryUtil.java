@@ -1,11 +1,18 @@
 package com.perfect.IndiExport.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class CountryUtil {
     
     private static final Map<String, String> COUNTRY_MAP = new HashMap<>();
+
+    // Dense 0..n-1 ids for the supported codes (sorted by code), used by bitmap indexes
+    private static final List<String> COUNTRY_CODES;
+    private static final Map<String, Integer> COUNTRY_INDEX = new HashMap<>();
     
     static {
         // ISO 3166-1 alpha-2 country codes to country names
@@ -67,6 +74,13 @@ public class CountryUtil {
         COUNTRY_MAP.put("US", "United States");
         COUNTRY_MAP.put("VN", "Vietnam");
         // Add more countries as needed
+
+        List<String> codes = new ArrayList<>(COUNTRY_MAP.keySet());
+        Collections.sort(codes);
+        for (int i = 0; i < codes.size(); i++) {
+            COUNTRY_INDEX.put(codes.get(i), i);
+        }
+        COUNTRY_CODES = Collections.unmodifiableList(codes);
     }
     
     public static String getCountryName(String countryCode) {
@@ -80,5 +94,16 @@ public class CountryUtil {
     public static boolean isValidCountryCode(String countryCode) {
         return COUNTRY_MAP.containsKey(countryCode.toUpperCase());
     }
-}
 
+    // Dense id of a supported country code, or -1 if the code is not in the map
+    public static int getCountryIndex(String countryCode) {
+        if (countryCode == null) {
+            return -1;
+        }
+        return COUNTRY_INDEX.getOrDefault(countryCode.trim().toUpperCase(), -1);
+    }
+
+    public static int getCountryCount() {
+        return COUNTRY_CODES.size();
+    }
+}
@@ -1,29 +1,88 @@
 package com.perfect.IndiExport.util;
 
+import com.perfect.IndiExport.entity.User;
 import io.jsonwebtoken.*;
 import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
 
     private final String SECRET_KEY = "indiexport_secret";
     private final long EXPIRATION = 86400000; // 1 day
+    private static final int MAX_VERIFIED_TOKENS = 10_000;
+
+    // Claims carried so a request can be authenticated without loading the user
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_NAME = "name";
+
+    // Response header carrying a reissued token after a change to claims in the current one (e.g. role)
+    public static final String REFRESHED_TOKEN_HEADER = "X-Refreshed-Token";
+
+    // Tokens whose signature has already been checked, keyed by SHA-256 of the token so raw
+    // bearer tokens are not kept in memory. An entry lives until the token's own exp.
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
-    public String generateToken(String username, String role) {
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(username)
-                .claim("role", role)
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_NAME, user.getName())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
                 .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return Jwts.parser().setSigningKey(SECRET_KEY)
+    public Claims parseClaims(String token) {
+        String key = sha256(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken verified = verifiedTokens.get(key);
+        if (verified != null) {
+            if (verified.expiresAt() > now) {
+                return verified.claims();
+            }
+            // Expired - let the parser raise ExpiredJwtException as before
+            verifiedTokens.remove(key);
+        }
+
+        Claims claims = Jwts.parser().setSigningKey(SECRET_KEY)
                 .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+                .getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+                verifiedTokens.values().removeIf(t -> t.expiresAt() <= now);
+            }
+            if (verifiedTokens.size() < MAX_VERIFIED_TOKENS) {
+                verifiedTokens.put(key, new VerifiedToken(claims, expiration.getTime()));
+            }
+        }
+        return claims;
+    }
+
+    public String extractUsername(String token) {
+        return parseClaims(token).getSubject();
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(Claims claims, long expiresAt) {
     }
-}
\ No newline at end of file
+}
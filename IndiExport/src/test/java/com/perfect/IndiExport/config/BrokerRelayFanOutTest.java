@@ -0,0 +1,180 @@
+package com.perfect.IndiExport.config;
+
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.UserRepository;
+import com.perfect.IndiExport.service.ChatService;
+import com.perfect.IndiExport.service.UserPrincipalCache;
+import com.perfect.IndiExport.util.JwtUtil;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Two application nodes share subscriptions through an embedded Artemis broker in relay mode:
+// a message published on one node reaches clients connected to either node.
+class BrokerRelayFanOutTest {
+
+    private EmbeddedActiveMQ broker;
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final List<WebSocketStompClient> clients = new ArrayList<>();
+
+    @BeforeEach
+    void startBrokerAndNodes() throws Exception {
+        int stompPort = freePort();
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .addAcceptorConfiguration("stomp", "tcp://localhost:" + stompPort + "?protocols=STOMP"));
+        broker.start();
+
+        for (int i = 0; i < 2; i++) {
+            // Command-line arguments, so they win over application.properties
+            nodes.add(new SpringApplicationBuilder(ChatNode.class).run(
+                    "--server.port=0",
+                    "--spring.main.banner-mode=off",
+                    "--spring.devtools.restart.enabled=false",
+                    "--spring.autoconfigure.exclude=" +
+                            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration," +
+                            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration," +
+                            "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration," +
+                            "org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration," +
+                            "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration",
+                    "--indiexport.websocket.broker=relay",
+                    "--indiexport.websocket.relay.port=" + stompPort));
+        }
+    }
+
+    @AfterEach
+    void stopAll() throws Exception {
+        clients.forEach(WebSocketStompClient::stop);
+        nodes.forEach(ConfigurableApplicationContext::close);
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void messagePublishedOnOneNodeReachesSubscribersOnBothNodes() throws Exception {
+        BlockingQueue<Map<String, Object>> onNodeOne = subscribe(nodes.get(0), "/topic/chat/42");
+        BlockingQueue<Map<String, Object>> onNodeTwo = subscribe(nodes.get(1), "/topic/chat/42");
+
+        SimpMessagingTemplate publisher = nodes.get(1).getBean(SimpMessagingTemplate.class);
+        // Subscriptions reach the broker asynchronously; publish until both clients have seen one
+        Map<String, Object> first = null;
+        Map<String, Object> second = null;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        while ((first == null || second == null) && System.currentTimeMillis() < deadline) {
+            publisher.convertAndSend("/topic/chat/42", Map.of("message", "hello from node 2"));
+            if (first == null) {
+                first = onNodeOne.poll(250, TimeUnit.MILLISECONDS);
+            }
+            if (second == null) {
+                second = onNodeTwo.poll(250, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        assertThat(first).containsEntry("message", "hello from node 2");
+        assertThat(second).containsEntry("message", "hello from node 2");
+    }
+
+    private BlockingQueue<Map<String, Object>> subscribe(ConfigurableApplicationContext node, String destination)
+            throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        clients.add(client);
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + new JwtUtil().generateToken(buyer()));
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+        StompSession session = client.connectAsync("http://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+
+        BlockingQueue<Map<String, Object>> received = new LinkedBlockingQueue<>();
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((Map<String, Object>) payload);
+            }
+        });
+        return received;
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static User buyer() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("buyer@example.com");
+        user.setName("Buyer");
+        user.setRole(Role.BUYER);
+        return user;
+    }
+
+    // Just the WebSocket layer of the application, without a database
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import({ WebSocketConfig.class, StompAuthChannelInterceptor.class, JwtUtil.class, UserPrincipalCache.class })
+    static class ChatNode {
+
+        @Bean
+        UserRepository userRepository() {
+            UserRepository repository = mock(UserRepository.class);
+            when(repository.findById(anyLong())).thenReturn(Optional.of(buyer()));
+            return repository;
+        }
+
+        // Room membership checks pass; they are covered by StompAuthChannelInterceptorTest
+        @Bean
+        ChatService chatService() {
+            return mock(ChatService.class);
+        }
+    }
+}
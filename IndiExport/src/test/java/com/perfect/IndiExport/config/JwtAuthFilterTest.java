@@ -0,0 +1,104 @@
+package com.perfect.IndiExport.config;
+
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.UserRepository;
+import com.perfect.IndiExport.service.UserChangedEvent;
+import com.perfect.IndiExport.service.UserPrincipalCache;
+import com.perfect.IndiExport.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthFilterTest {
+
+    private static final int REQUESTS = 1_000;
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserPrincipalCache userCache = new UserPrincipalCache(userRepository, 60, 100);
+    private final JwtAuthFilter filter = new JwtAuthFilter();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userCache", userCache);
+        user = new User();
+        user.setId(3L);
+        user.setEmail("buyer@example.com");
+        user.setName("Buyer");
+        user.setRole(Role.BUYER);
+        user.setStatus("ACTIVE");
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedRequestsLoadTheUserOnce() throws Exception {
+        String token = jwtUtil.generateToken(user);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            Authentication authentication = authenticate(token);
+            assertThat(authentication.getPrincipal()).isInstanceOfSatisfying(AuthPrincipal.class,
+                    principal -> assertThat(principal.getId()).isEqualTo(3L));
+            assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_BUYER");
+        }
+
+        // One users query for the whole run instead of one per request
+        verify(userRepository, times(1)).findById(3L);
+        assertThat(userCache.stats().hits()).isEqualTo(REQUESTS - 1);
+        assertThat(userCache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void roleAndStatusChangesApplyToExistingTokens() throws Exception {
+        String token = jwtUtil.generateToken(user);
+        authenticate(token);
+
+        // Onboarding as a seller takes effect without a new token once the change is published
+        User seller = copyOf(user);
+        seller.setRole(Role.SELLER);
+        when(userRepository.findById(3L)).thenReturn(Optional.of(seller));
+        userCache.onUserChanged(new UserChangedEvent(3L, "buyer@example.com"));
+        assertThat(authenticate(token).getAuthorities()).extracting("authority").containsExactly("ROLE_SELLER");
+
+        User blocked = copyOf(seller);
+        blocked.setStatus("BLOCKED");
+        when(userRepository.findById(3L)).thenReturn(Optional.of(blocked));
+        userCache.onUserChanged(new UserChangedEvent(3L, "buyer@example.com"));
+        assertThat(authenticate(token)).isNull();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/chat/rooms");
+        request.setServletPath("/api/chat/rooms");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static User copyOf(User source) {
+        return new User(source.getId(), source.getName(), source.getEmail(), source.getPassword(),
+                source.getRole(), source.getStatus());
+    }
+}
@@ -0,0 +1,164 @@
+package com.perfect.IndiExport.config;
+
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.UserRepository;
+import com.perfect.IndiExport.service.ChatService;
+import com.perfect.IndiExport.service.UserPrincipalCache;
+import com.perfect.IndiExport.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StompAuthChannelInterceptorTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ChatService chatService = mock(ChatService.class);
+    private final StompAuthChannelInterceptor interceptor =
+            new StompAuthChannelInterceptor(jwtUtil, new UserPrincipalCache(userRepository, 60, 100), chatService);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void connectWithValidTokenStoresPrincipalOnSession() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(seller()));
+
+        Message<?> result = interceptor.preSend(
+                frame(StompCommand.CONNECT, "Bearer " + jwtUtil.generateToken(seller())), channel);
+
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(result, StompHeaderAccessor.class);
+        assertThat(accessor.getUser()).isInstanceOfSatisfying(AuthPrincipal.class, principal -> {
+            assertThat(principal.getId()).isEqualTo(7L);
+            assertThat(principal.getName()).isEqualTo("seller@example.com");
+            assertThat(principal.getDisplayName()).isEqualTo("Seller");
+            assertThat(principal.isSeller()).isTrue();
+        });
+    }
+
+    @Test
+    void connectWithLegacyTokenFallsBackToUserLookup() {
+        when(userRepository.findByEmail("seller@example.com")).thenReturn(Optional.of(seller()));
+        String legacyToken = Jwts.builder()
+                .setSubject("seller@example.com")
+                .claim("role", "SELLER")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, "indiexport_secret")
+                .compact();
+
+        Message<?> result = interceptor.preSend(frame(StompCommand.CONNECT, "Bearer " + legacyToken), channel);
+
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(result, StompHeaderAccessor.class);
+        assertThat(((AuthPrincipal) accessor.getUser()).getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void connectWithBadTokenIsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer not-a-jwt"), channel))
+                .hasMessage("Invalid token");
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, null), channel))
+                .hasMessage("Missing token");
+    }
+
+    @Test
+    void sendWithoutAuthenticatedSessionIsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SEND, null), channel))
+                .hasMessage("Not authenticated");
+    }
+
+    @Test
+    void roomSubscriptionIsCheckedOncePerSessionAndRoom() {
+        Map<String, Object> session = new HashMap<>();
+
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chat/42", session), channel);
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chat/42", session), channel);
+        interceptor.preSend(frame(StompCommand.SEND, "/app/chat/42/typing", session), channel);
+
+        verify(chatService, times(1)).verifyParticipant(any(User.class), eq(42L));
+    }
+
+    @Test
+    void subscriptionToSomeoneElsesRoomIsRejected() {
+        doThrow(new RuntimeException("Access denied")).when(chatService).verifyParticipant(any(User.class), eq(43L));
+
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chat/43", new HashMap<>()),
+                channel)).hasMessage("Access denied");
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SEND, "/app/chat/43/typing", new HashMap<>()),
+                channel)).hasMessage("Access denied");
+    }
+
+    @Test
+    void onlyRoomTopicsAndUserQueuesCanBeSubscribed() {
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/user/queue/inbox", new HashMap<>()), channel);
+
+        assertThatThrownBy(() -> interceptor.preSend(
+                frame(StompCommand.SUBSCRIBE, "/topic/simp-user-registry", new HashMap<>()), channel))
+                .hasMessage("Subscription not allowed");
+        assertThatThrownBy(() -> interceptor.preSend(
+                frame(StompCommand.SUBSCRIBE, "/topic/chat/", new HashMap<>()), channel))
+                .hasMessage("Subscription not allowed");
+    }
+
+    @Test
+    void sendToBrokerDestinationsIsRejected() {
+        interceptor.preSend(frame(StompCommand.SEND, "/app/chat/42/typing", new HashMap<>()), channel);
+
+        assertThatThrownBy(() -> interceptor.preSend(
+                frame(StompCommand.SEND, "/topic/chat/42", new HashMap<>()), channel))
+                .hasMessage("Send not allowed");
+        assertThatThrownBy(() -> interceptor.preSend(
+                frame(StompCommand.SEND, "/user/7/queue/inbox", new HashMap<>()), channel))
+                .hasMessage("Send not allowed");
+        assertThatThrownBy(() -> interceptor.preSend(
+                frame(StompCommand.SEND, "/queue/inbox", new HashMap<>()), channel))
+                .hasMessage("Send not allowed");
+    }
+
+    private static User seller() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("seller@example.com");
+        user.setName("Seller");
+        user.setRole(Role.SELLER);
+        return user;
+    }
+
+    // A frame on an authenticated session
+    private Message<byte[]> frame(StompCommand command, String destination, Map<String, Object> session) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setSessionAttributes(session);
+        accessor.setUser(AuthPrincipal.of(seller()));
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Message<byte[]> frame(StompCommand command, String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
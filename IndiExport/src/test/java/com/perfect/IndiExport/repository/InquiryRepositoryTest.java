@@ -0,0 +1,86 @@
+package com.perfect.IndiExport.repository;
+
+import com.perfect.IndiExport.entity.Inquiry;
+import com.perfect.IndiExport.entity.Product;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.Seller;
+import com.perfect.IndiExport.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class InquiryRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InquiryRepository inquiryRepository;
+
+    @Test
+    void countsInquiriesPerMonth() {
+        Seller seller = seller("seller@example.com");
+        Seller other = seller("other@example.com");
+        User buyer = user("buyer@example.com", Role.BUYER);
+        Product product = product(seller);
+        Product otherProduct = product(other);
+
+        inquiry(seller, buyer, product, LocalDateTime.of(2025, 12, 30, 23, 0));
+        inquiry(seller, buyer, product, LocalDateTime.of(2026, 1, 2, 9, 0));
+        inquiry(seller, buyer, product, LocalDateTime.of(2026, 1, 31, 18, 0));
+        inquiry(seller, buyer, product, LocalDateTime.of(2026, 3, 1, 0, 0));
+        inquiry(other, buyer, otherProduct, LocalDateTime.of(2026, 1, 15, 12, 0));
+
+        List<Object[]> rows = inquiryRepository.countMonthlyBySellerId(seller.getId());
+
+        assertThat(rows).extracting(row -> ((Number) row[0]).intValue() + "-" + ((Number) row[1]).intValue()
+                        + "=" + ((Number) row[2]).longValue())
+                .containsExactly("2025-12=1", "2026-1=2", "2026-3=1");
+    }
+
+    private void inquiry(Seller seller, User buyer, Product product, LocalDateTime createdAt) {
+        Inquiry inquiry = Inquiry.builder().seller(seller).buyer(buyer).product(product).build();
+        entityManager.persistAndFlush(inquiry);
+        // createdAt is a creation timestamp, so backdate it after the insert
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Inquiry i SET i.createdAt = :createdAt WHERE i.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", inquiry.getId())
+                .executeUpdate();
+    }
+
+    private Seller seller(String email) {
+        Seller seller = Seller.builder().user(user(email, Role.SELLER)).businessName("Exports Ltd").build();
+        entityManager.persist(seller);
+        return seller;
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Product product(Seller seller) {
+        Product product = Product.builder()
+                .seller(seller)
+                .name("Tea")
+                .price(BigDecimal.TEN)
+                .minQuantity(1)
+                .declaredStock(10)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+}
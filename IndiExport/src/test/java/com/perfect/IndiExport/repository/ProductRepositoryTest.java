@@ -0,0 +1,131 @@
+package com.perfect.IndiExport.repository;
+
+import com.perfect.IndiExport.dto.SellerAnalyticsDto;
+import com.perfect.IndiExport.entity.ChatRoom;
+import com.perfect.IndiExport.entity.Inquiry;
+import com.perfect.IndiExport.entity.Invoice;
+import com.perfect.IndiExport.entity.Product;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.Seller;
+import com.perfect.IndiExport.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class ProductRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private int invoiceNumber;
+
+    @Test
+    void productPerformanceCountsEachSideOnceAndOrdersByInquiries() {
+        Seller seller = seller("seller@example.com");
+        Seller other = seller("other@example.com");
+        User buyer = user("buyer@example.com", Role.BUYER);
+
+        Product quiet = product(seller, "Quiet");
+        Product busy = product(seller, "Busy");
+        Product steady = product(seller, "Steady");
+        Product untouched = product(seller, "Untouched");
+        Product foreign = product(other, "Foreign");
+
+        // busy: 3 inquiries, 2 with chats, 2 invoices - the joins must not multiply these
+        chat(inquiry(seller, buyer, busy));
+        chat(inquiry(seller, buyer, busy));
+        inquiry(seller, buyer, busy);
+        invoice(seller, buyer, busy);
+        invoice(seller, buyer, busy);
+        // steady and quiet tie on inquiries below busy; ties fall back to product id
+        chat(inquiry(seller, buyer, steady));
+        inquiry(seller, buyer, quiet);
+        invoice(seller, buyer, quiet);
+        inquiry(other, buyer, foreign);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<SellerAnalyticsDto.ProductPerformance> performance =
+                productRepository.findProductPerformanceBySellerId(seller.getId(), PageRequest.of(0, 5));
+
+        assertThat(performance)
+                .extracting("productName", "inquiryCount", "chatCount", "invoiceCount")
+                .containsExactly(
+                        tuple("Busy", 3L, 2L, 2L),
+                        tuple("Quiet", 1L, 0L, 1L),
+                        tuple("Steady", 1L, 1L, 0L),
+                        tuple("Untouched", 0L, 0L, 0L));
+        assertThat(performance.get(1).getProductId()).isEqualTo(quiet.getId());
+        assertThat(productRepository.findProductPerformanceBySellerId(seller.getId(), PageRequest.of(0, 2)))
+                .extracting("productId")
+                .containsExactly(busy.getId(), quiet.getId());
+        assertThat(untouched.getId()).isGreaterThan(steady.getId());
+    }
+
+    private Inquiry inquiry(Seller seller, User buyer, Product product) {
+        Inquiry inquiry = Inquiry.builder().seller(seller).buyer(buyer).product(product).build();
+        entityManager.persist(inquiry);
+        return inquiry;
+    }
+
+    private void chat(Inquiry inquiry) {
+        entityManager.persist(ChatRoom.builder()
+                .inquiry(inquiry)
+                .buyer(inquiry.getBuyer())
+                .seller(inquiry.getSeller())
+                .build());
+    }
+
+    private void invoice(Seller seller, User buyer, Product product) {
+        entityManager.persist(Invoice.builder()
+                .invoiceNumber("INV-TEST-" + ++invoiceNumber)
+                .seller(seller)
+                .buyer(buyer)
+                .product(product)
+                .quantity(1)
+                .unitPrice(BigDecimal.TEN)
+                .totalPrice(BigDecimal.TEN)
+                .totalAmount(BigDecimal.TEN)
+                .currency("INR")
+                .build());
+    }
+
+    private Seller seller(String email) {
+        Seller seller = Seller.builder().user(user(email, Role.SELLER)).businessName("Exports Ltd").build();
+        entityManager.persist(seller);
+        return seller;
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Product product(Seller seller, String name) {
+        Product product = Product.builder()
+                .seller(seller)
+                .name(name)
+                .price(BigDecimal.TEN)
+                .minQuantity(1)
+                .declaredStock(10)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+}
@@ -0,0 +1,45 @@
+package com.perfect.IndiExport.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storesContentUnderItsHashOnce() throws Exception {
+        ChatBlobStore store = new ChatBlobStore(root.toString());
+        byte[] content = "proforma invoice".getBytes(StandardCharsets.UTF_8);
+
+        ChatBlobStore.StoredBlob first = store.store(new ByteArrayInputStream(content));
+        ChatBlobStore.StoredBlob second = store.store(new ByteArrayInputStream(content));
+
+        assertThat(first.sha256()).isEqualTo("793b43e0eb9d6450c347fbe2325be3320ebb77aa75b83be640f198321f3956ee");
+        assertThat(second.sha256()).isEqualTo(first.sha256());
+        assertThat(first.size()).isEqualTo(content.length);
+        assertThat(Files.readAllBytes(store.path(first.sha256()))).isEqualTo(content);
+
+        // One blob on disk and no temp files left behind
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+    }
+
+    @Test
+    void rejectsPathsThatAreNotHashes() {
+        ChatBlobStore store = new ChatBlobStore(root.toString());
+
+        assertThatThrownBy(() -> store.path("../../etc/passwd")).isInstanceOf(RuntimeException.class);
+    }
+}
@@ -0,0 +1,147 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.ChatDeliveryDto;
+import com.perfect.IndiExport.dto.ChatMessageDto;
+import com.perfect.IndiExport.dto.ChatRoomMembersDto;
+import com.perfect.IndiExport.dto.SendMessageRequest;
+import com.perfect.IndiExport.entity.ChatMessage;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.ChatAttachmentRepository;
+import com.perfect.IndiExport.repository.ChatMessageRepository;
+import com.perfect.IndiExport.repository.ChatRoomRepository;
+import com.perfect.IndiExport.repository.InquiryRepository;
+import com.perfect.IndiExport.repository.SellerRepository;
+import com.perfect.IndiExport.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatMessageWriterTest {
+
+    private static final int MESSAGES = 200;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final ChatMessageIdAllocator idAllocator = mock(ChatMessageIdAllocator.class);
+    private final ChatInboxPublisher inboxPublisher = mock(ChatInboxPublisher.class);
+
+    @Test
+    void sendsAreAcceptedWhileTheDatabaseWriteIsStillRunning() throws Exception {
+        CountDownLatch databaseReleased = new CountDownLatch(1);
+        AtomicInteger insertedRows = new AtomicInteger();
+        AtomicInteger insertBatches = new AtomicInteger();
+        doAnswer(invocation -> {
+            databaseReleased.await(30, TimeUnit.SECONDS);
+            Collection<?> rows = invocation.getArgument(1);
+            insertedRows.addAndGet(rows.size());
+            insertBatches.incrementAndGet();
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT INTO chat_messages"), anyCollection(), anyInt(), any());
+        AtomicLong ids = new AtomicLong();
+        when(idAllocator.next()).thenAnswer(invocation -> ids.incrementAndGet());
+
+        User buyer = new User();
+        buyer.setId(1L);
+        buyer.setName("Buyer");
+        ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+        when(chatRoomRepository.findMembersById(anyLong())).thenReturn(Optional.of(new ChatRoomMembersDto(1L, 2L)));
+
+        ChatMessageWriter writer = writer(MESSAGES);
+        ChatService chatService = new ChatService(chatRoomRepository, mock(ChatMessageRepository.class),
+                mock(InquiryRepository.class), mock(SellerRepository.class), mock(UserRepository.class),
+                messagingTemplate, mock(ApplicationEventPublisher.class), writer, inboxPublisher,
+                new ChatAttachmentCache(mock(ChatAttachmentRepository.class), 100),
+                new ChatRoomMembershipCache(chatRoomRepository, 100), mock(TransactionTemplate.class));
+        writer.start();
+
+        SendMessageRequest request = new SendMessageRequest();
+        request.setMessage("Can you ship 500 units by March?");
+        // The first write blocks until released, so every send below returns before anything is stored
+        for (int i = 0; i < MESSAGES; i++) {
+            assertThat(chatService.sendMessage(buyer, 10L, request, false).getId()).isEqualTo(i + 1L);
+        }
+        assertThat(insertedRows).hasValue(0);
+
+        databaseReleased.countDown();
+        writer.stop();
+
+        // Messages that queued up behind the blocked write went out together
+        assertThat(insertedRows).hasValue(MESSAGES);
+        assertThat(insertBatches.get()).isLessThan(MESSAGES / 10);
+    }
+
+    @Test
+    void rejectedRowOnlyFailsItsOwnMessage() throws Exception {
+        doAnswer(invocation -> {
+            Collection<ChatMessageDto> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(message -> message.getId() == 2L)) {
+                throw new DataIntegrityViolationException("null value in column \"message\"");
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT INTO chat_messages"), anyCollection(), anyInt(), any());
+
+        writer(10).writeWithRetry(List.of(message(1L), message(2L), message(3L)));
+
+        verify(messagingTemplate).convertAndSend("/topic/chat/10", new ChatDeliveryDto("PERSISTED", 10L, List.of(1L, 3L)));
+        verify(messagingTemplate).convertAndSend("/topic/chat/10", new ChatDeliveryDto("FAILED", 10L, List.of(2L)));
+    }
+
+    @Test
+    void transientFailuresAreRetriedAsOneBatch() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            Collection<?> rows = invocation.getArgument(1);
+            batchSizes.add(rows.size());
+            if (batchSizes.size() == 1) {
+                throw new QueryTimeoutException("timeout");
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT INTO chat_messages"), anyCollection(), anyInt(), any());
+
+        writer(10).writeWithRetry(List.of(message(1L), message(2L)));
+
+        assertThat(batchSizes).containsExactly(2, 2);
+        verify(messagingTemplate).convertAndSend("/topic/chat/10", new ChatDeliveryDto("PERSISTED", 10L, List.of(1L, 2L)));
+    }
+
+    private ChatMessageWriter writer(int queueCapacity) {
+        return new ChatMessageWriter(jdbcTemplate, messagingTemplate, idAllocator, inboxPublisher,
+                true, 500, queueCapacity);
+    }
+
+    private ChatMessageDto message(Long id) {
+        ChatMessageDto message = new ChatMessageDto();
+        message.setId(id);
+        message.setChatRoomId(10L);
+        message.setSenderId(1L);
+        message.setSenderType(ChatMessage.MessageType.BUYER);
+        message.setMessage("Hello");
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+}
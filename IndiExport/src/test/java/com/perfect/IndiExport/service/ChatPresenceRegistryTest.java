@@ -0,0 +1,104 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.config.AuthPrincipal;
+import com.perfect.IndiExport.dto.PresenceEventDto;
+import com.perfect.IndiExport.entity.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatPresenceRegistryTest {
+
+    private final List<Message<?>> published = new ArrayList<>();
+    private final SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+        synchronized (published) {
+            published.add(message);
+        }
+        return true;
+    });
+
+    @Test
+    void subscriptionsAndTypingArePublishedOncePerTick() {
+        ChatPresenceRegistry registry = new ChatPresenceRegistry(messagingTemplate, 3000, 10_000);
+        AuthPrincipal buyer = new AuthPrincipal(1L, "buyer@example.com", Role.BUYER, "Buyer");
+
+        registry.onSubscribe(new SessionSubscribeEvent(this, subscribeFrame("s1", "sub-1", "/topic/chat/5"), buyer));
+        for (int i = 0; i < 50; i++) {
+            registry.typing(5L, 1L, true);
+        }
+        registry.tick();
+
+        assertThat(published).hasSize(1);
+        PresenceEventDto snapshot = registry.snapshot(5L);
+        assertThat(snapshot.getOnlineUserIds()).containsExactly(1L);
+        assertThat(snapshot.getTypingUserIds()).containsExactly(1L);
+
+        // Nothing changed, nothing sent
+        registry.tick();
+        assertThat(published).hasSize(1);
+
+        registry.onDisconnect(new SessionDisconnectEvent(this,
+                MessageBuilder.withPayload(new byte[0]).build(), "s1", CloseStatus.NORMAL, buyer));
+        registry.tick();
+        assertThat(published).hasSize(2);
+        assertThat(registry.snapshot(5L).getOnlineUserIds()).isEmpty();
+        assertThat(registry.snapshot(5L).getTypingUserIds()).isEmpty();
+    }
+
+    @Test
+    void userStaysOnlineUntilTheirLastSessionLeaves() {
+        ChatPresenceRegistry registry = new ChatPresenceRegistry(messagingTemplate, 3000, 10_000);
+        AuthPrincipal buyer = new AuthPrincipal(1L, "buyer@example.com", Role.BUYER, "Buyer");
+
+        registry.onSubscribe(new SessionSubscribeEvent(this, subscribeFrame("s1", "sub-1", "/topic/chat/5"), buyer));
+        registry.onSubscribe(new SessionSubscribeEvent(this, subscribeFrame("s2", "sub-1", "/topic/chat/5"), buyer));
+        registry.onDisconnect(disconnect("s1", buyer));
+
+        assertThat(registry.snapshot(5L).getOnlineUserIds()).containsExactly(1L);
+
+        registry.onDisconnect(disconnect("s2", buyer));
+        registry.onSubscribe(new SessionSubscribeEvent(this, subscribeFrame("s3", "sub-1", "/topic/chat/5"), buyer));
+
+        assertThat(registry.snapshot(5L).getOnlineUserIds()).containsExactly(1L);
+    }
+
+    @Test
+    void occupiedRoomsAreRepublishedWithTheNodeIdOnTheRefreshInterval() {
+        ChatPresenceRegistry registry = new ChatPresenceRegistry(messagingTemplate, 3000, 0);
+        AuthPrincipal buyer = new AuthPrincipal(1L, "buyer@example.com", Role.BUYER, "Buyer");
+        registry.onSubscribe(new SessionSubscribeEvent(this, subscribeFrame("s1", "sub-1", "/topic/chat/5"), buyer));
+
+        registry.tick();
+        registry.tick();
+
+        // With no changes, the second tick is the refresh; both events identify this node
+        assertThat(published).hasSize(2);
+        PresenceEventDto event = (PresenceEventDto) published.get(1).getPayload();
+        assertThat(event.getNodeId()).isNotBlank().isEqualTo(registry.snapshot(5L).getNodeId());
+        assertThat(event.getOnlineUserIds()).containsExactly(1L);
+    }
+
+    private SessionDisconnectEvent disconnect(String sessionId, AuthPrincipal user) {
+        return new SessionDisconnectEvent(this, MessageBuilder.withPayload(new byte[0]).build(), sessionId,
+                CloseStatus.NORMAL, user);
+    }
+
+    private static Message<byte[]> subscribeFrame(String sessionId, String subscriptionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,127 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.ChatMessageDto;
+import com.perfect.IndiExport.dto.ChatRoomMembersDto;
+import com.perfect.IndiExport.dto.SendMessageRequest;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.ChatAttachmentRepository;
+import com.perfect.IndiExport.repository.ChatMessageRepository;
+import com.perfect.IndiExport.repository.ChatRoomRepository;
+import com.perfect.IndiExport.repository.InquiryRepository;
+import com.perfect.IndiExport.repository.SellerRepository;
+import com.perfect.IndiExport.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Send latency (p50/p99) in low-latency chat mode: the time until sendMessage returns with the
+// message accepted and broadcast. Every database round trip costs roundTripMicros; with an id
+// block of 1 each send pays one for its id, with a block of 100 only one send in a hundred does.
+// Room membership comes from ChatRoomMembershipCache and the batched inserts run on the writer
+// thread, so neither should show up in the distribution.
+// Not run by the test phase; after `mvn test-compile`, run main() from the IDE or with the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(8)
+@Fork(1)
+public class ChatSendBenchmark {
+
+    @Param({"1", "100"})
+    public int idBlockSize;
+
+    @Param({"500"})
+    public long roundTripMicros;
+
+    private ChatMessageWriter writer;
+    private ChatService chatService;
+    private User buyer;
+    private SendMessageRequest request;
+
+    @Setup
+    public void setUp() {
+        // Stub-only mocks: recording every call would grow the heap over a run
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, withSettings().stubOnly());
+        AtomicLong sequence = new AtomicLong();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            roundTrip();
+            return sequence.addAndGet(idBlockSize);
+        });
+        doAnswer(invocation -> {
+            roundTrip();
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+        ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class, withSettings().stubOnly());
+        when(chatRoomRepository.findMembersById(anyLong())).thenReturn(Optional.of(new ChatRoomMembersDto(1L, 2L)));
+
+        ChatMessageIdAllocator idAllocator = new ChatMessageIdAllocator(jdbcTemplate, "nextval", idBlockSize);
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class, withSettings().stubOnly());
+        writer = new ChatMessageWriter(jdbcTemplate, messagingTemplate, idAllocator, mock(ChatInboxPublisher.class, withSettings().stubOnly()),
+                true, 500, 1_000_000);
+        chatService = new ChatService(chatRoomRepository, mock(ChatMessageRepository.class),
+                mock(InquiryRepository.class), mock(SellerRepository.class), mock(UserRepository.class),
+                messagingTemplate, mock(ApplicationEventPublisher.class), writer, mock(ChatInboxPublisher.class, withSettings().stubOnly()),
+                new ChatAttachmentCache(mock(ChatAttachmentRepository.class), 100),
+                new ChatRoomMembershipCache(chatRoomRepository, 100), mock(TransactionTemplate.class));
+        writer.start();
+
+        buyer = new User();
+        buyer.setId(1L);
+        buyer.setName("Buyer");
+        request = new SendMessageRequest();
+        request.setMessage("Can you ship 500 units by March?");
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Benchmark
+    public ChatMessageDto send() {
+        return chatService.sendMessage(buyer, 10L, request, false);
+    }
+
+    private void roundTrip() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ChatSendBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,217 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.ChatMessageDto;
+import com.perfect.IndiExport.dto.ChatMessagePageDto;
+import com.perfect.IndiExport.dto.ChatRoomDto;
+import com.perfect.IndiExport.dto.InboxDeltaDto;
+import com.perfect.IndiExport.dto.ReadReceiptDto;
+import com.perfect.IndiExport.entity.ChatMessage;
+import com.perfect.IndiExport.entity.ChatRoom;
+import com.perfect.IndiExport.entity.Inquiry;
+import com.perfect.IndiExport.entity.Product;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.Seller;
+import com.perfect.IndiExport.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ ChatService.class, ChatMessageWriter.class, ChatMessageIdAllocator.class, ChatInboxPublisher.class,
+        ChatAttachmentCache.class, ChatRoomMembershipCache.class })
+class ChatServiceQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatMessageIdAllocator idAllocator;
+
+    @MockBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Test
+    void roomListIsOneStatementWithUnreadCountsAndLastMessage() {
+        User sellerUser = createUser("seller@example.com", Role.SELLER);
+        Seller seller = Seller.builder().user(sellerUser).businessName("Exports Ltd").build();
+        entityManager.persist(seller);
+        Product product = Product.builder()
+                .seller(seller)
+                .name("Teapot")
+                .price(BigDecimal.TEN)
+                .minQuantity(1)
+                .declaredStock(100)
+                .build();
+        entityManager.persist(product);
+
+        for (int i = 0; i < 10; i++) {
+            User buyer = createUser("buyer" + i + "@example.com", Role.BUYER);
+            Inquiry inquiry = Inquiry.builder().buyer(buyer).seller(seller).product(product).build();
+            entityManager.persist(inquiry);
+            ChatRoom room = ChatRoom.builder().inquiry(inquiry).buyer(buyer).seller(seller).build();
+            entityManager.persist(room);
+            // One buyer message the seller has read, two past the seller's cursor, one from the seller
+            ChatMessage read = addMessage(room, buyer, ChatMessage.MessageType.BUYER);
+            entityManager.flush();
+            room.setSellerLastReadMessageId(read.getId());
+            addMessage(room, buyer, ChatMessage.MessageType.BUYER);
+            addMessage(room, buyer, ChatMessage.MessageType.BUYER);
+            addMessage(room, sellerUser, ChatMessage.MessageType.SELLER);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ChatRoomDto> rooms = chatService.getSellerChatRooms(sellerUser);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(rooms).hasSize(10).allSatisfy(room -> {
+            assertThat(room.getUnreadCount()).isEqualTo(2);
+            assertThat(room.getLastMessageAt()).isNotNull();
+            assertThat(room.getProductName()).isEqualTo("Teapot");
+            assertThat(room.getSellerBusinessName()).isEqualTo("Exports Ltd");
+        });
+    }
+
+    @Test
+    void messageHistoryPagesByIdCursorInBothDirections() {
+        User buyer = createUser("pager@example.com", Role.BUYER);
+        ChatRoom room = createRoom(buyer, createUser("pager-seller@example.com", Role.SELLER));
+        for (int i = 0; i < 25; i++) {
+            addMessage(room, buyer, ChatMessage.MessageType.BUYER);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ChatMessagePageDto newest = chatService.getChatMessagesPage(buyer, room.getId(), null, null, 10);
+        assertThat(newest.isHasNext()).isTrue();
+        assertThat(newest.getContent()).hasSize(10).isSortedAccordingTo(
+                (a, b) -> a.getId().compareTo(b.getId()));
+        assertThat(newest.getNextCursor()).isEqualTo(newest.getContent().get(0).getId());
+
+        ChatMessagePageDto older = chatService.getChatMessagesPage(buyer, room.getId(), newest.getNextCursor(), null, 10);
+        ChatMessagePageDto oldest = chatService.getChatMessagesPage(buyer, room.getId(), older.getNextCursor(), null, 10);
+        assertThat(oldest.getContent()).hasSize(5);
+        assertThat(oldest.isHasNext()).isFalse();
+        assertThat(oldest.getNextCursor()).isNull();
+
+        Long lastSeen = newest.getContent().get(4).getId();
+        ChatMessagePageDto newer = chatService.getChatMessagesPage(buyer, room.getId(), null, lastSeen, 10);
+        assertThat(newer.getContent()).extracting(ChatMessageDto::getId)
+                .containsExactlyElementsOf(newest.getContent().subList(5, 10).stream().map(ChatMessageDto::getId).toList());
+        assertThat(newer.isHasNext()).isFalse();
+    }
+
+    @Test
+    void markAsReadAdvancesCursorAndPushesReceipt() {
+        User buyer = createUser("reader@example.com", Role.BUYER);
+        User sellerUser = createUser("reader-seller@example.com", Role.SELLER);
+        ChatRoom room = createRoom(buyer, sellerUser);
+        for (int i = 0; i < 20; i++) {
+            addMessage(room, buyer, ChatMessage.MessageType.BUYER);
+        }
+        addMessage(room, sellerUser, ChatMessage.MessageType.SELLER);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        chatService.markMessagesAsRead(sellerUser, room.getId());
+
+        // Room lookup, latest message id, the cursor UPDATE and the inbox state for both
+        // participants - messages are never rewritten
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        verify(messagingTemplate).convertAndSend(eq("/topic/chat/" + room.getId()), any(ReadReceiptDto.class));
+        verify(messagingTemplate).convertAndSendToUser(eq("reader-seller@example.com"), eq("/queue/inbox"),
+                argThat((InboxDeltaDto delta) -> delta.getUnreadCount() == 0));
+        verify(messagingTemplate).convertAndSendToUser(eq("reader@example.com"), eq("/queue/inbox"),
+                argThat((InboxDeltaDto delta) -> delta.getUnreadCount() == 1));
+        assertThat(chatService.getSellerChatRooms(sellerUser)).singleElement()
+                .satisfies(dto -> assertThat(dto.getUnreadCount()).isZero());
+        assertThat(chatService.getBuyerChatRooms(buyer)).singleElement()
+                .satisfies(dto -> assertThat(dto.getUnreadCount()).isEqualTo(1));
+        assertThat(chatService.getChatMessagesPage(buyer, room.getId(), null, null, 50).getContent())
+                .allSatisfy(dto -> assertThat(dto.getIsRead())
+                        .isEqualTo(dto.getSenderType() == ChatMessage.MessageType.BUYER));
+    }
+
+    @Test
+    void allocatedIdsNeverCollideWithJpaInserts() {
+        User buyer = createUser("ids@example.com", Role.BUYER);
+        ChatRoom room = createRoom(buyer, createUser("ids-seller@example.com", Role.SELLER));
+
+        // Interleaved, so both sides cross several block boundaries while the other holds a block
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3 * ChatMessage.ID_BLOCK_SIZE; i++) {
+            ids.add(idAllocator.next());
+            ids.add(addMessage(room, buyer, ChatMessage.MessageType.BUYER).getId());
+        }
+
+        assertThat(ids).hasSize(6 * ChatMessage.ID_BLOCK_SIZE);
+    }
+
+    private ChatRoom createRoom(User buyer, User sellerUser) {
+        Seller seller = Seller.builder().user(sellerUser).businessName("Exports Ltd").build();
+        entityManager.persist(seller);
+        Product product = Product.builder()
+                .seller(seller)
+                .name("Teapot")
+                .price(BigDecimal.TEN)
+                .minQuantity(1)
+                .declaredStock(100)
+                .build();
+        entityManager.persist(product);
+        Inquiry inquiry = Inquiry.builder().buyer(buyer).seller(seller).product(product).build();
+        entityManager.persist(inquiry);
+        ChatRoom room = ChatRoom.builder().inquiry(inquiry).buyer(buyer).seller(seller).build();
+        entityManager.persist(room);
+        return room;
+    }
+
+    private User createUser(String email, Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private ChatMessage addMessage(ChatRoom room, User sender, ChatMessage.MessageType type) {
+        return entityManager.persist(ChatMessage.builder()
+                .chatRoom(room)
+                .sender(sender)
+                .senderType(type)
+                .message("hello")
+                .build());
+    }
+}
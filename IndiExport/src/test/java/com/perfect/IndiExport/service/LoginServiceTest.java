@@ -0,0 +1,131 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.config.SecurityConfig;
+import com.perfect.IndiExport.controller.AuthController;
+import com.perfect.IndiExport.dto.LoginRequest;
+import com.perfect.IndiExport.dto.LoginResponse;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.UserRepository;
+import com.perfect.IndiExport.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoginServiceTest {
+
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int LOGINS = 40;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void legacyHashIsUpgradedOnSuccessfulLogin() {
+        PasswordEncoder encoder = new SecurityConfig().passwordEncoder(5);
+        User user = user(new BCryptPasswordEncoder(4).encode("secret")); // stored before the {bcrypt} prefix
+        when(userRepository.findByEmail("buyer@example.com")).thenReturn(Optional.of(user));
+
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("buyer@example.com", "secret"));
+
+        verify(userRepository).updatePassword(eq("buyer@example.com"), startsWith("{bcrypt}$2a$05$"));
+    }
+
+    @Test
+    void loginStormIsBoundedByThePool() throws Exception {
+        // The single worker holds the first login until released, so the queue fills deterministically
+        CountDownLatch release = new CountDownLatch(1);
+        AuthenticationManager authenticationManager = authentication -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return authentication;
+        };
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user("hash")));
+        LoginService loginService = new LoginService(authenticationManager, userRepository, new JwtUtil(),
+                1, QUEUE_CAPACITY);
+
+        List<CompletableFuture<LoginResponse>> accepted = new ArrayList<>();
+        int busy = 0;
+        for (int i = 0; i < LOGINS; i++) {
+            try {
+                accepted.add(loginService.login(request()));
+            } catch (LoginService.LoginBusyException e) {
+                busy++;
+            }
+            assertThat(loginService.queueDepth()).isLessThanOrEqualTo(QUEUE_CAPACITY);
+        }
+
+        // One running plus a full queue were accepted; everything else was turned away
+        assertThat(accepted).hasSize(QUEUE_CAPACITY + 1);
+        assertThat(busy).isEqualTo(LOGINS - accepted.size());
+        assertThat(loginService.rejectedCount()).isEqualTo(busy);
+
+        release.countDown();
+        for (CompletableFuture<LoginResponse> login : accepted) {
+            assertThat(login.get(10, TimeUnit.SECONDS).getToken()).isNotBlank();
+        }
+        loginService.shutdown();
+    }
+
+    @Test
+    void busyPoolAnswers503WithRetryAfter() throws Exception {
+        LoginService loginService = mock(LoginService.class);
+        when(loginService.login(any(LoginRequest.class))).thenThrow(new LoginService.LoginBusyException());
+        AuthController controller = new AuthController();
+        ReflectionTestUtils.setField(controller, "loginService", loginService);
+
+        ResponseEntity<?> response = controller.login(request()).get();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    private static LoginRequest request() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("buyer@example.com");
+        request.setPassword("secret");
+        return request;
+    }
+
+    private static User user(String passwordHash) {
+        User user = new User();
+        user.setId(5L);
+        user.setEmail("buyer@example.com");
+        user.setName("Buyer");
+        user.setPassword(passwordHash);
+        user.setRole(Role.BUYER);
+        return user;
+    }
+}
@@ -0,0 +1,109 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.LoginRequest;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.UserRepository;
+import com.perfect.IndiExport.util.JwtUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Login latency during a storm: more concurrent clients than the login pool can serve, each
+// doing real bcrypt work. The sampled distribution (p50/p99) covers both accepted logins and the
+// immediate LoginBusyException answers; the accepted/busy counters show how many of each.
+// Not run by the test phase; after `mvn test-compile`, run main() from the IDE or with the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class LoginStormBenchmark {
+
+    @Param({"16"})
+    public int queueCapacity;
+
+    private LoginService loginService;
+    private LoginRequest request;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long accepted;
+        public long busy;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            accepted = 0;
+            busy = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(10);
+        String hash = bcrypt.encode("secret");
+        User user = new User();
+        user.setId(5L);
+        user.setEmail("buyer@example.com");
+        user.setName("Buyer");
+        user.setPassword(hash);
+        user.setRole(Role.BUYER);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+
+        loginService = new LoginService(authentication -> {
+            bcrypt.matches(authentication.getCredentials().toString(), hash);
+            return authentication;
+        }, userRepository, new JwtUtil(), 0, queueCapacity);
+
+        request = new LoginRequest();
+        request.setEmail("buyer@example.com");
+        request.setPassword("secret");
+    }
+
+    @TearDown
+    public void tearDown() {
+        loginService.shutdown();
+    }
+
+    @Benchmark
+    public Object login(Outcomes outcomes) {
+        try {
+            Object response = loginService.login(request).join();
+            outcomes.accepted++;
+            return response;
+        } catch (LoginService.LoginBusyException e) {
+            outcomes.busy++;
+            return e;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(LoginStormBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.perfect.IndiExport.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Presence fan-out: many users typing flat out across a few rooms. "per-frame" broadcasts a
+// snapshot for every typing frame, as a naive handler would; "coalesced" is ChatPresenceRegistry
+// as deployed, with its tick publishing at most one snapshot per dirty room. The score is typing
+// frames handled per second; after each iteration the broker message count and rate are printed,
+// which is the number to compare: per-frame grows with keystrokes, coalesced stays at rooms x ticks.
+// Not run by the test phase; after `mvn test-compile`, run main() from the IDE or with the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PresenceFanOutBenchmark {
+
+    @Param({"per-frame", "coalesced"})
+    public String mode;
+
+    @Param({"20"})
+    public int rooms;
+
+    @Param({"50"})
+    public int typersPerRoom;
+
+    @Param({"500"})
+    public long tickMillis;
+
+    private final LongAdder brokerMessages = new LongAdder();
+    private SimpMessagingTemplate messagingTemplate;
+    private ChatPresenceRegistry registry;
+    private ScheduledExecutorService ticker;
+    private long iterationStart;
+
+    @Setup
+    public void setUp() {
+        // Counts what would reach the broker; the broker itself is not part of the measurement
+        messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+            brokerMessages.increment();
+            return true;
+        });
+        registry = new ChatPresenceRegistry(messagingTemplate, 3_000, 10_000);
+        if ("coalesced".equals(mode)) {
+            ticker = Executors.newSingleThreadScheduledExecutor();
+            ticker.scheduleWithFixedDelay(registry::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        brokerMessages.reset();
+        iterationStart = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportIteration() {
+        double seconds = (System.nanoTime() - iterationStart) / 1e9;
+        System.out.printf("%n%s: %d broker messages (%.0f/s)%n", mode, brokerMessages.sum(),
+                brokerMessages.sum() / seconds);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void typingFrame() {
+        long user = ThreadLocalRandom.current().nextInt(rooms * typersPerRoom);
+        long roomId = user % rooms;
+        registry.typing(roomId, user, true);
+        if ("per-frame".equals(mode)) {
+            messagingTemplate.convertAndSend("/topic/chat/" + roomId, registry.snapshot(roomId));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(PresenceFanOutBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,41 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.repository.ProductSellingCountryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductAvailabilityIndexTest {
+
+    private final ProductSellingCountryRepository repository = mock(ProductSellingCountryRepository.class);
+
+    @Test
+    void freshEntriesAnswerWithoutTheDatabase() {
+        ProductAvailabilityIndex index = new ProductAvailabilityIndex(repository, 60);
+        index.put(1L, List.of("IN"));
+
+        assertThat(index.isAvailable(1L, "IN")).contains(true);
+        assertThat(index.retainAvailable(List.of(1L), "US")).isEmpty();
+        verify(repository, never()).findProductIdAndCountryCodeByProductIdIn(anyCollection());
+    }
+
+    @Test
+    void expiredEntriesAreReloadedSoOtherNodesChangesShowUp() {
+        // TTL 0: every entry is stale at once, as if another node had since changed it
+        ProductAvailabilityIndex index = new ProductAvailabilityIndex(repository, 0);
+        index.put(1L, List.of("IN"));
+        when(repository.findProductIdAndCountryCodeByProductIdIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[] { 1L, "US" }));
+
+        assertThat(index.isAvailable(1L, "US")).contains(true);
+        assertThat(index.isAvailable(1L, "IN")).contains(false);
+        assertThat(index.retainAvailable(List.of(1L, 2L), "US")).containsExactly(1L);
+    }
+}
@@ -0,0 +1,87 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null);
+        index.index(product(1L, "Assam Black Tea", "Strong black tea leaves", "Beverages"));
+        index.index(product(2L, "Green Tea", "Tea tea tea from Darjeeling", "Beverages"));
+        index.index(product(3L, "Brass Teapot", "Hand-made teapot", "Handicrafts"));
+        index.index(product(4L, "Cotton Saree", "Handloom cotton", "Textiles"));
+    }
+
+    @Test
+    void ranksProductsByRelevance() {
+        List<Long> results = index.search("tea");
+
+        // Product 2 mentions tea most often; the teapot still matches as a prefix
+        assertThat(results).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(results.get(0)).isEqualTo(2L);
+    }
+
+    @Test
+    void requiresEveryQueryTerm() {
+        assertThat(index.search("black tea")).containsExactly(1L);
+        assertThat(index.search("HANDLOOM, cotton")).containsExactly(4L);
+        assertThat(index.search("silk tea")).isEmpty();
+    }
+
+    @Test
+    void matchesInsideWords() {
+        // Infix hits rank below prefix hits
+        assertThat(index.search("ssam")).containsExactly(1L);
+        assertThat(index.search("pot")).containsExactly(3L);
+        assertThat(index.search("ot")).isEmpty();
+        // "eateat" has every trigram of "teate" without containing it
+        index.index(product(5L, "Eateat", null, null));
+        assertThat(index.search("teate")).isEmpty();
+        assertThat(index.search("atea")).containsExactly(5L);
+    }
+
+    @Test
+    void scoresEveryPrefixExpansion() {
+        for (long id = 10; id < 110; id++) {
+            index.index(product(id, "tea" + String.format("%03d", id), null, null));
+        }
+        index.index(product(200L, "teazzz", null, null));
+
+        assertThat(index.search("tea")).contains(200L, 10L, 109L);
+    }
+
+    @Test
+    void keepsIndexCurrentOnUpdates() {
+        index.index(product(4L, "Silk Saree", "Pure silk", "Textiles"));
+        assertThat(index.search("cotton")).isEmpty();
+        assertThat(index.search("silk")).containsExactly(4L);
+
+        Product inactive = product(1L, "Assam Black Tea", "Strong black tea leaves", "Beverages");
+        inactive.setActive(false);
+        index.index(inactive);
+        assertThat(index.search("assam")).isEmpty();
+
+        index.remove(2L);
+        assertThat(index.search("darjeeling")).isEmpty();
+        assertThat(index.search("arjee")).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private Product product(Long id, String name, String description, String category) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .category(category)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.Product;
+import com.perfect.IndiExport.entity.ProductSellingCountry;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.Seller;
+import com.perfect.IndiExport.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ ProductService.class, ProductSearchIndex.class, ProductAvailabilityIndex.class, ProductViewBuffer.class })
+class ProductServiceQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void sellerProductListingUsesConstantNumberOfStatements() {
+        User small = createSellerWithProducts("small@example.com", 2);
+        User large = createSellerWithProducts("large@example.com", 25);
+
+        long smallCount = countStatements(() -> assertThat(productService.getSellerProducts(small)).hasSize(2));
+        long largeCount = countStatements(() -> assertThat(productService.getSellerProducts(large))
+                .hasSize(25)
+                .allSatisfy(dto -> assertThat(dto.getSellingCountries()).containsExactlyInAnyOrder("US", "GB")));
+
+        assertThat(largeCount).isEqualTo(smallCount);
+    }
+
+    @Test
+    void sellerProductDetailIsOneStatementRegardlessOfCatalogSize() {
+        User seller = createSellerWithProducts("detail@example.com", 25);
+        Long productId = productService.getSellerProducts(seller).get(0).getId();
+
+        long count = countStatements(() -> assertThat(productService.getSellerProductDetails(seller, productId)
+                .getSellingCountries()).containsExactlyInAnyOrder("US", "GB"));
+
+        assertThat(count).isEqualTo(1);
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User createSellerWithProducts(String email, int productCount) {
+        User user = new User();
+        user.setName("Seller");
+        user.setEmail(email);
+        user.setRole(Role.SELLER);
+        entityManager.persist(user);
+
+        Seller seller = Seller.builder().user(user).businessName("Exports Ltd").build();
+        entityManager.persist(seller);
+
+        for (int i = 0; i < productCount; i++) {
+            Product product = Product.builder()
+                    .seller(seller)
+                    .name("Product " + i)
+                    .price(BigDecimal.TEN)
+                    .minQuantity(1)
+                    .declaredStock(100)
+                    .build();
+            entityManager.persist(product);
+            for (String code : new String[] { "US", "GB" }) {
+                entityManager.persist(ProductSellingCountry.builder()
+                        .product(product)
+                        .countryCode(code)
+                        .countryName(code)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        return user;
+    }
+}
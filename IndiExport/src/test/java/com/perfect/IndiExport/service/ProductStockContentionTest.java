@@ -0,0 +1,124 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.Product;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.Seller;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.ProductRepository;
+import com.perfect.IndiExport.repository.SellerRepository;
+import com.perfect.IndiExport.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs without the test transaction so every reservation commits on its own, as in production
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ ProductService.class, ProductSearchIndex.class, ProductAvailabilityIndex.class, ProductViewBuffer.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductStockContentionTest {
+
+    private static final int STOCK = 100;
+    private static final int RESERVATIONS = 400;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void parallelReservationsNeverOversell() throws Exception {
+        Long productId = createProduct("contention@example.com").getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    productService.reserveStock(productId, 1);
+                    return true;
+                } catch (RuntimeException e) {
+                    assertThat(e).hasMessageStartingWith("Insufficient stock");
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                succeeded++;
+            }
+        }
+        pool.shutdown();
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(succeeded).isEqualTo(STOCK);
+        assertThat(product.getReservedStock()).isEqualTo(STOCK);
+        assertThat(product.getRemainingStock()).isZero();
+        assertThat(product.isActive()).isFalse();
+    }
+
+    @Test
+    void staleEntitySaveFailsAfterStockChange() {
+        Product stale = createProduct("stale@example.com");
+
+        productService.reserveStock(stale.getId(), 5);
+
+        // A full-entity write based on the old row would drop the reservation
+        stale.setName("Renamed");
+        assertThatThrownBy(() -> productRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(productRepository.findById(stale.getId()).orElseThrow().getReservedStock()).isEqualTo(5);
+    }
+
+    private Product createProduct(String email) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User user = new User();
+            user.setName("Seller");
+            user.setEmail(email);
+            user.setRole(Role.SELLER);
+            userRepository.save(user);
+
+            Seller seller = sellerRepository.save(Seller.builder().user(user).businessName("Exports Ltd").build());
+            return productRepository.save(Product.builder()
+                    .seller(seller)
+                    .name("Brass Lamp")
+                    .price(BigDecimal.TEN)
+                    .minQuantity(1)
+                    .declaredStock(STOCK)
+                    .build());
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.Product;
+import com.perfect.IndiExport.entity.ProductViewTracking;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.Seller;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.ProductViewTrackingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(ProductViewBuffer.class)
+class ProductViewBufferFlushTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductViewBuffer buffer;
+
+    @Autowired
+    private ProductViewTrackingRepository trackingRepository;
+
+    private Product tea;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        User sellerUser = user("seller@example.com", Role.SELLER);
+        Seller seller = Seller.builder().user(sellerUser).businessName("Exports Ltd").build();
+        entityManager.persist(seller);
+        tea = Product.builder()
+                .seller(seller)
+                .name("Tea")
+                .price(BigDecimal.TEN)
+                .minQuantity(1)
+                .declaredStock(10)
+                .build();
+        entityManager.persist(tea);
+        alice = user("alice@example.com", Role.BUYER);
+        bob = user("bob@example.com", Role.BUYER);
+        entityManager.flush();
+    }
+
+    @Test
+    void flushWritesOneRowPerBuyerAndDay() {
+        buffer.record(tea.getId(), alice.getId());
+        buffer.record(tea.getId(), alice.getId());
+        buffer.record(tea.getId(), bob.getId());
+
+        buffer.flush();
+
+        assertThat(views()).extracting(view -> view.getBuyer().getId())
+                .containsExactlyInAnyOrder(alice.getId(), bob.getId());
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void flushSkipsViewsAlreadyStoredByAnotherNode() {
+        ProductViewTracking stored = new ProductViewTracking();
+        stored.setProduct(tea);
+        stored.setBuyer(alice);
+        stored.setViewDate(LocalDate.now().atStartOfDay());
+        entityManager.persist(stored);
+        entityManager.flush();
+
+        buffer.record(tea.getId(), alice.getId());
+        buffer.record(tea.getId(), bob.getId());
+        buffer.flush();
+
+        assertThat(views()).extracting(view -> view.getBuyer().getId(), ProductViewTracking::getViewDate)
+                .containsExactlyInAnyOrder(
+                        tuple(alice.getId(), LocalDate.now().atStartOfDay()),
+                        tuple(bob.getId(), LocalDate.now().atStartOfDay()));
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    private List<ProductViewTracking> views() {
+        entityManager.clear();
+        return trackingRepository.findAll();
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+}
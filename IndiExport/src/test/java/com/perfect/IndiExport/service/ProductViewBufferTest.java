@@ -0,0 +1,54 @@
+package com.perfect.IndiExport.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductViewBufferTest {
+
+    private static final int MAX_PENDING = 10;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ProductViewBuffer buffer = new ProductViewBuffer(jdbcTemplate, MAX_PENDING);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void staysBoundedWhileTheDatabaseIsDown() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+
+        for (long buyerId = 1; buyerId <= 25; buyerId++) {
+            buffer.record(1L, buyerId);
+        }
+        buffer.flush();
+        for (long buyerId = 26; buyerId <= 30; buyerId++) {
+            buffer.record(1L, buyerId);
+        }
+
+        assertThat(buffer.pendingCount()).isEqualTo(MAX_PENDING);
+        assertThat(buffer.droppedCount()).isEqualTo(20);
+    }
+
+    @Test
+    void keepsAcceptingViewsOnceFlushed() {
+        for (long buyerId = 1; buyerId <= 25; buyerId++) {
+            buffer.record(1L, buyerId);
+        }
+        buffer.flush();
+        buffer.record(2L, 1L);
+
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+        assertThat(buffer.droppedCount()).isEqualTo(15);
+    }
+}
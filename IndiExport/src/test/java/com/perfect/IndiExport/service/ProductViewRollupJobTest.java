@@ -0,0 +1,163 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.entity.Product;
+import com.perfect.IndiExport.entity.ProductViewDaily;
+import com.perfect.IndiExport.entity.ProductViewTracking;
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.Seller;
+import com.perfect.IndiExport.entity.User;
+import com.perfect.IndiExport.repository.ProductViewDailyRepository;
+import com.perfect.IndiExport.repository.ProductViewTrackingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "indiexport.views.raw-retention-days=30"
+})
+@Import(ProductViewRollupJob.class)
+class ProductViewRollupJobTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDate OLD_DAY = TODAY.minusDays(40);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductViewRollupJob job;
+
+    @Autowired
+    private ProductViewDailyRepository dailyRepository;
+
+    @Autowired
+    private ProductViewTrackingRepository trackingRepository;
+
+    private Seller seller;
+    private Product tea;
+    private Product saree;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        // The job is shared across tests; start each one as a fresh node would
+        ReflectionTestUtils.setField(job, "rollUpFrom", null);
+        User sellerUser = user("seller@example.com", Role.SELLER);
+        seller = Seller.builder().user(sellerUser).businessName("Exports Ltd").build();
+        entityManager.persist(seller);
+        tea = product("Tea");
+        saree = product("Saree");
+        alice = user("alice@example.com", Role.BUYER);
+        bob = user("bob@example.com", Role.BUYER);
+    }
+
+    @Test
+    void rollsUpViewsPerProductAndDay() {
+        view(tea, alice, OLD_DAY);
+        view(tea, alice, TODAY);
+        view(tea, bob, TODAY);
+        view(saree, bob, TODAY);
+
+        job.rollUp();
+
+        assertThat(dailyRows()).extracting("productId", "viewDay", "views", "uniqueBuyers")
+                .containsExactlyInAnyOrder(
+                        tuple(tea.getId(), OLD_DAY, 1L, 1L),
+                        tuple(tea.getId(), TODAY, 2L, 2L),
+                        tuple(saree.getId(), TODAY, 1L, 1L));
+        assertThat(dailyRepository.sumViewsBySellerId(seller.getId())).isEqualTo(4);
+    }
+
+    @Test
+    void laterRunsRefreshRecentDaysWithoutDuplicatingRows() {
+        view(tea, alice, TODAY);
+        job.rollUp();
+
+        view(tea, bob, TODAY);
+        job.rollUp();
+        job.rollUp();
+
+        assertThat(dailyRows()).extracting("productId", "viewDay", "views")
+                .containsExactly(tuple(tea.getId(), TODAY, 2L));
+    }
+
+    @Test
+    void compactionDropsOldRawViewsButKeepsTheirDailyTotals() {
+        view(tea, alice, OLD_DAY);
+        view(tea, bob, TODAY);
+        job.rollUp();
+
+        job.compactRawViews();
+        entityManager.clear();
+
+        assertThat(trackingRepository.count()).isEqualTo(1);
+        // Re-aggregating from before the cutoff leaves the compacted day alone
+        ReflectionTestUtils.setField(job, "rollUpFrom", OLD_DAY);
+        job.rollUp();
+        assertThat(dailyRows()).extracting("productId", "viewDay", "views")
+                .containsExactlyInAnyOrder(
+                        tuple(tea.getId(), OLD_DAY, 1L),
+                        tuple(tea.getId(), TODAY, 1L));
+        assertThat(dailyRepository.sumViewsBySellerId(seller.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void distinctBuyersOnlyCoverTheRetentionWindow() {
+        view(tea, alice, OLD_DAY);
+        view(saree, bob, TODAY);
+        entityManager.flush();
+        assertThat(trackingRepository.countDistinctBuyersBySellerId(seller.getId())).isEqualTo(2);
+
+        job.compactRawViews();
+
+        assertThat(trackingRepository.countDistinctBuyersBySellerId(seller.getId())).isEqualTo(1);
+    }
+
+    private List<ProductViewDaily> dailyRows() {
+        entityManager.clear();
+        return dailyRepository.findAll();
+    }
+
+    private void view(Product product, User buyer, LocalDate day) {
+        ProductViewTracking view = new ProductViewTracking();
+        view.setProduct(product);
+        view.setBuyer(buyer);
+        view.setViewDate(day.atStartOfDay());
+        entityManager.persist(view);
+        entityManager.flush();
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Product product(String name) {
+        Product product = Product.builder()
+                .seller(seller)
+                .name(name)
+                .price(BigDecimal.TEN)
+                .minQuantity(1)
+                .declaredStock(10)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+}
@@ -0,0 +1,91 @@
+package com.perfect.IndiExport.service;
+
+import com.perfect.IndiExport.dto.SellerAnalyticsDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SellerAnalyticsCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesCachedSnapshotUntilSellerActivity() {
+        SellerAnalyticsCache cache = new SellerAnalyticsCache(60, 100);
+
+        SellerAnalyticsDto first = cache.get(1L, loader());
+        assertThat(cache.get(1L, loader())).isSameAs(first);
+        assertThat(loads).hasValue(1);
+
+        cache.onSellerActivity(new SellerActivityEvent(1L, SellerActivityEvent.Type.INQUIRY_CREATED));
+
+        assertThat(cache.get(1L, loader())).isNotSameAs(first);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void productAndOnboardingChangesEvictTheOwningSeller() {
+        SellerAnalyticsCache cache = new SellerAnalyticsCache(60, 100);
+        cache.get(1L, loader());
+        cache.get(2L, loader());
+
+        cache.onProductChanged(ProductChangedEvent.removed(10L, 1L));
+        cache.get(1L, loader());
+        cache.get(2L, loader());
+        assertThat(loads).hasValue(3);
+
+        cache.onUserChanged(new UserChangedEvent(2L, "seller@example.com"));
+        cache.get(2L, loader());
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void reloadsExpiredSnapshots() {
+        SellerAnalyticsCache cache = new SellerAnalyticsCache(0, 100);
+
+        cache.get(1L, loader());
+        cache.get(1L, loader());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void keepsOnlyMostRecentlyUsedSellers() {
+        SellerAnalyticsCache cache = new SellerAnalyticsCache(60, 2);
+
+        cache.get(1L, loader());
+        cache.get(2L, loader());
+        cache.get(1L, loader());
+        cache.get(3L, loader());
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get(1L, loader());
+        assertThat(loads).hasValue(3);
+        cache.get(2L, loader());
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void doesNotCacheSnapshotLoadedAcrossAnEviction() {
+        SellerAnalyticsCache cache = new SellerAnalyticsCache(60, 100);
+
+        // The activity commits while the snapshot is still being built from the old rows
+        cache.get(1L, () -> {
+            cache.evict(1L);
+            return loader().get();
+        });
+        cache.get(1L, loader());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private Supplier<SellerAnalyticsDto> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return SellerAnalyticsDto.builder().build();
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.perfect.IndiExport.util;
+
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    void repeatedTokenIsServedFromTheVerifiedCache() {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("buyer@example.com");
+        user.setRole(Role.BUYER);
+        String token = jwtUtil.generateToken(user);
+
+        assertThat(jwtUtil.parseClaims(token)).isSameAs(jwtUtil.parseClaims(token));
+        assertThat(jwtUtil.extractUsername(token)).isEqualTo("buyer@example.com");
+
+        // A token that only differs in its signature is a different cache key and is verified
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThatThrownBy(() -> jwtUtil.parseClaims(tampered)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void cachedTokenStillExpiresAtItsExp() throws Exception {
+        String token = Jwts.builder()
+                .setSubject("buyer@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 1000))
+                .signWith(SignatureAlgorithm.HS256, "indiexport_secret")
+                .compact();
+        jwtUtil.parseClaims(token);
+
+        Thread.sleep(1100);
+
+        assertThatThrownBy(() -> jwtUtil.parseClaims(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+}
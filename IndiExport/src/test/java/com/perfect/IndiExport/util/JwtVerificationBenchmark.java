@@ -0,0 +1,61 @@
+package com.perfect.IndiExport.util;
+
+import com.perfect.IndiExport.entity.Role;
+import com.perfect.IndiExport.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Token verification throughput: the full jjwt parse every request used to pay, against
+// JwtUtil.parseClaims for a token it has already verified. Not run by the test phase;
+// after `mvn test-compile`, run main() from the IDE or with the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("buyer@example.com");
+        user.setName("Buyer");
+        user.setRole(Role.BUYER);
+        jwtUtil = new JwtUtil();
+        token = jwtUtil.generateToken(user);
+        jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims cold() {
+        return Jwts.parser().setSigningKey("indiexport_secret").parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims cached() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
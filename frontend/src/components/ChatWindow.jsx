@@ -1,5 +1,5 @@
 import { useState, useEffect, useRef } from "react";
-import { getChatMessages, sendMessage, markMessagesAsRead, getOrCreateChatRoom } from "../services/chatService";
+import { getChatMessagesPage, sendMessage, markMessagesAsRead, getOrCreateChatRoom, uploadChatAttachment, downloadChatAttachment } from "../services/chatService";
 import { getSellerProfile } from "../services/sellerService";
 import { getBuyerProfile } from "../services/buyerService";
 // Note: Install WebSocket dependencies: npm install sockjs-client @stomp/stompjs
@@ -14,8 +14,16 @@ const ChatWindow = ({ inquiryId, onClose }) => {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState("");
     const [fileInput, setFileInput] = useState(null);
+    const [olderCursor, setOlderCursor] = useState(null);
+    const [loadingOlder, setLoadingOlder] = useState(false);
+    const [typingUserIds, setTypingUserIds] = useState([]);
     const messagesEndRef = useRef(null);
     const stompClientRef = useRef(null);
+    const pollIntervalRef = useRef(null);
+    const lastMessageIdRef = useRef(null);
+    const skipScrollRef = useRef(false);
+    // Latest presence event per server node: { [nodeId]: { typingUserIds, receivedAt } }
+    const presenceByNodeRef = useRef({});
 
     const userRole = localStorage.getItem("role") || "";
 
@@ -25,13 +33,30 @@ const ChatWindow = ({ inquiryId, onClose }) => {
             if (stompClientRef.current) {
                 stompClientRef.current.deactivate();
             }
+            if (pollIntervalRef.current) {
+                clearInterval(pollIntervalRef.current);
+            }
         };
     }, [inquiryId]);
 
     useEffect(() => {
+        // Keep the scroll position when older history is prepended
+        if (skipScrollRef.current) {
+            skipScrollRef.current = false;
+            return;
+        }
         scrollToBottom();
     }, [messages]);
 
+    const appendMessages = (newMessages) => {
+        if (newMessages.length === 0) return;
+        lastMessageIdRef.current = newMessages[newMessages.length - 1].id;
+        setMessages((prev) => {
+            const seen = new Set(prev.map((m) => m.id));
+            return [...prev, ...newMessages.filter((m) => !seen.has(m.id))];
+        });
+    };
+
     const initializeChat = async () => {
         try {
             setError("");
@@ -42,9 +67,14 @@ const ChatWindow = ({ inquiryId, onClose }) => {
             setChatRoom(roomRes.data);
             setCurrentUser(profileRes.data.user);
 
-            // Load existing messages
-            const messagesRes = await getChatMessages(roomRes.data.id);
-            setMessages(messagesRes.data || []);
+            // Load the newest page; older history is fetched on demand
+            const messagesRes = await getChatMessagesPage(roomRes.data.id);
+            const page = messagesRes.data;
+            setMessages(page.content || []);
+            setOlderCursor(page.hasNext ? page.nextCursor : null);
+            if (page.content?.length) {
+                lastMessageIdRef.current = page.content[page.content.length - 1].id;
+            }
 
             // Connect WebSocket
             connectWebSocket(roomRes.data.id);
@@ -66,13 +96,49 @@ const ChatWindow = ({ inquiryId, onClose }) => {
         const socket = new SockJS("/ws");
         const stompClient = new Client({
             webSocketFactory: () => socket,
+            // Authenticated once at CONNECT; afterwards sends go over the socket:
+            //   stompClient.publish({ destination: `/app/chat/${roomId}/send`, body: JSON.stringify(messageData) })
+            //   stompClient.publish({ destination: `/app/chat/${roomId}/typing`, body: "true" })
+            //   stompClient.publish({ destination: `/app/chat/${roomId}/read` })
+            connectHeaders: { Authorization: `Bearer ${localStorage.getItem("token")}` },
             reconnectDelay: 5000,
             heartbeatIncoming: 4000,
             heartbeatOutgoing: 4000,
             onConnect: () => {
                 stompClient.subscribe(`/topic/chat/${roomId}`, (message) => {
                     const newMsg = JSON.parse(message.body);
-                    setMessages((prev) => [...prev, newMsg]);
+                    // Read receipts share the topic with messages
+                    if (newMsg.type === "READ_RECEIPT") {
+                        setMessages((prev) => prev.map((m) =>
+                            m.senderType !== newMsg.readerType && m.id <= newMsg.lastReadMessageId
+                                ? { ...m, isRead: true }
+                                : m));
+                        return;
+                    }
+                    // Each server node reports its own sessions; the room is the union of the latest
+                    // report per node. Nodes re-report every 10s, so silent ones are dropped after 30s.
+                    if (newMsg.type === "PRESENCE") {
+                        const now = Date.now();
+                        const byNode = presenceByNodeRef.current;
+                        byNode[newMsg.nodeId] = { typingUserIds: newMsg.typingUserIds || [], receivedAt: now };
+                        Object.keys(byNode).forEach((nodeId) => {
+                            if (now - byNode[nodeId].receivedAt > 30000) delete byNode[nodeId];
+                        });
+                        const typing = new Set(Object.values(byNode).flatMap((node) => node.typingUserIds));
+                        setTypingUserIds([...typing].filter((id) => id !== currentUser?.id));
+                        return;
+                    }
+                    // Delivery events from the low-latency send mode
+                    if (newMsg.type === "PERSISTED") {
+                        return;
+                    }
+                    if (newMsg.type === "FAILED") {
+                        const failed = new Set(newMsg.messageIds);
+                        setMessages((prev) => prev.filter((m) => !failed.has(m.id)));
+                        setError("Some messages could not be saved. Please send them again.");
+                        return;
+                    }
+                    appendMessages([newMsg]);
                     markMessagesAsRead(roomId).catch(console.error);
                 });
             },
@@ -84,14 +150,31 @@ const ChatWindow = ({ inquiryId, onClose }) => {
         stompClientRef.current = stompClient;
         */
 
-        // Polling fallback - refresh messages every 3 seconds
-        const pollInterval = setInterval(() => {
-            getChatMessages(roomId).then(res => {
-                setMessages(res.data || []);
+        // Polling fallback - fetch only messages newer than the last one every 3 seconds
+        if (pollIntervalRef.current) {
+            clearInterval(pollIntervalRef.current);
+        }
+        pollIntervalRef.current = setInterval(() => {
+            getChatMessagesPage(roomId, { after: lastMessageIdRef.current ?? 0, size: 100 }).then(res => {
+                appendMessages(res.data.content || []);
             }).catch(console.error);
         }, 3000);
+    };
 
-        return () => clearInterval(pollInterval);
+    const loadOlderMessages = async () => {
+        if (!olderCursor || loadingOlder) return;
+        try {
+            setLoadingOlder(true);
+            const res = await getChatMessagesPage(chatRoom.id, { before: olderCursor });
+            const page = res.data;
+            skipScrollRef.current = true;
+            setMessages((prev) => [...(page.content || []), ...prev]);
+            setOlderCursor(page.hasNext ? page.nextCursor : null);
+        } catch (err) {
+            console.error("Failed to load older messages:", err);
+        } finally {
+            setLoadingOlder(false);
+        }
     };
 
     const handleSendMessage = async () => {
@@ -99,10 +182,14 @@ const ChatWindow = ({ inquiryId, onClose }) => {
 
         try {
             setError("");
+            let attachmentId = null;
+            if (fileInput) {
+                const upload = await uploadChatAttachment(chatRoom.id, fileInput);
+                attachmentId = upload.data.id;
+            }
             const messageData = {
                 message: newMessage,
-                fileName: fileInput?.name || null,
-                fileUrl: fileInput ? URL.createObjectURL(fileInput) : null, // In production, upload to server first
+                attachmentId,
             };
 
             await sendMessage(chatRoom.id, messageData);
@@ -119,6 +206,22 @@ const ChatWindow = ({ inquiryId, onClose }) => {
         }
     };
 
+    const handleDownload = async (msg) => {
+        try {
+            const response = await downloadChatAttachment(msg.attachmentId);
+            const url = window.URL.createObjectURL(new Blob([response.data]));
+            const link = document.createElement("a");
+            link.href = url;
+            link.setAttribute("download", msg.fileName);
+            document.body.appendChild(link);
+            link.click();
+            link.remove();
+            window.URL.revokeObjectURL(url);
+        } catch (err) {
+            console.error("Failed to download attachment:", err);
+        }
+    };
+
     const handleFileSelect = (e) => {
         const file = e.target.files[0];
         if (!file) return;
@@ -179,6 +282,9 @@ const ChatWindow = ({ inquiryId, onClose }) => {
                     <div style={{ fontSize: "12px", color: "#64748b" }}>
                         Buyer: {chatRoom?.buyerName}
                     </div>
+                    {typingUserIds.length > 0 && (
+                        <div style={{ fontSize: "12px", color: "#2563eb" }}>typing...</div>
+                    )}
                 </div>
                 <button
                     onClick={onClose}
@@ -215,6 +321,26 @@ const ChatWindow = ({ inquiryId, onClose }) => {
                     </div>
                 )}
 
+                {olderCursor && (
+                    <div style={{ textAlign: "center", marginBottom: "15px" }}>
+                        <button
+                            onClick={loadOlderMessages}
+                            disabled={loadingOlder}
+                            style={{
+                                padding: "6px 12px",
+                                borderRadius: "6px",
+                                border: "1px solid #e2e8f0",
+                                backgroundColor: "#fff",
+                                cursor: loadingOlder ? "not-allowed" : "pointer",
+                                color: "#64748b",
+                                fontSize: "13px"
+                            }}
+                        >
+                            {loadingOlder ? "Loading..." : "Load older messages"}
+                        </button>
+                    </div>
+                )}
+
                 {messages.map((msg) => {
                     const isMe = msg.senderId === currentUser?.id;
                     const isSellerMessage = msg.senderType === "SELLER";
@@ -244,7 +370,14 @@ const ChatWindow = ({ inquiryId, onClose }) => {
                                 {msg.fileName && (
                                     <div style={{ marginTop: "8px", padding: "8px", backgroundColor: isMe ? "rgba(255,255,255,0.2)" : "#f1f5f9", borderRadius: "6px" }}>
                                         <div style={{ fontSize: "12px", fontWeight: "600" }}>📎 {msg.fileName}</div>
-                                        {msg.fileUrl && (
+                                        {msg.attachmentId ? (
+                                            <button
+                                                onClick={() => handleDownload(msg)}
+                                                style={{ background: "none", border: "none", padding: 0, cursor: "pointer", textDecoration: "underline", color: isMe ? "#fff" : "#2563eb", fontSize: "12px" }}
+                                            >
+                                                Download
+                                            </button>
+                                        ) : msg.fileUrl && (
                                             <a href={msg.fileUrl} target="_blank" rel="noopener noreferrer" style={{ color: isMe ? "#fff" : "#2563eb", fontSize: "12px" }}>
                                                 Download
                                             </a>
@@ -1,6 +1,6 @@
 import { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
-import { browseProducts } from "../services/productService";
+import { browseProductsPage, getBrowseCategories } from "../services/productService";
 import { getAllCountries } from "../services/productService";
 
 const ProductBrowse = () => {
@@ -10,22 +10,34 @@ const ProductBrowse = () => {
     const [error, setError] = useState("");
     const [searchTerm, setSearchTerm] = useState("");
     const [selectedCategory, setSelectedCategory] = useState("");
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const navigate = useNavigate();
 
+    useEffect(() => {
+        fetchCategories();
+    }, []);
+
     useEffect(() => {
         fetchProducts();
     }, [selectedCategory, searchTerm]);
 
+    const fetchCategories = async () => {
+        try {
+            const response = await getBrowseCategories();
+            setCategories(response.data);
+        } catch (err) {
+            console.error("Category fetch error:", err);
+        }
+    };
+
     const fetchProducts = async () => {
         try {
             setLoading(true);
             setError("");
-            const response = await browseProducts(selectedCategory || null, searchTerm || null);
-            setProducts(response.data);
-
-            // Extract unique categories
-            const uniqueCategories = [...new Set(response.data.map(p => p.category).filter(Boolean))];
-            setCategories(uniqueCategories);
+            const response = await browseProductsPage(selectedCategory || null, searchTerm || null);
+            setProducts(response.data.content);
+            setNextCursor(response.data.nextCursor);
         } catch (err) {
             console.error("Fetch error:", err);
             setError(err.response?.data?.message || "Failed to load products");
@@ -34,6 +46,21 @@ const ProductBrowse = () => {
         }
     };
 
+    const loadMoreProducts = async () => {
+        if (!nextCursor) return;
+        try {
+            setLoadingMore(true);
+            const response = await browseProductsPage(selectedCategory || null, searchTerm || null, nextCursor);
+            setProducts((prev) => [...prev, ...response.data.content]);
+            setNextCursor(response.data.nextCursor);
+        } catch (err) {
+            console.error("Fetch error:", err);
+            setError(err.response?.data?.message || "Failed to load products");
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleProductClick = (productId) => {
         navigate(`/products/${productId}`);
     };
@@ -259,6 +286,26 @@ const ProductBrowse = () => {
                         ))}
                     </div>
                 )}
+
+                {nextCursor && (
+                    <div style={{ textAlign: "center", marginTop: "30px" }}>
+                        <button
+                            onClick={loadMoreProducts}
+                            disabled={loadingMore}
+                            style={{
+                                padding: "10px 24px",
+                                borderRadius: "8px",
+                                border: "1px solid #e2e8f0",
+                                backgroundColor: "#fff",
+                                color: "#2563eb",
+                                fontWeight: "600",
+                                cursor: loadingMore ? "not-allowed" : "pointer"
+                            }}
+                        >
+                            {loadingMore ? "Loading..." : "Load more"}
+                        </button>
+                    </div>
+                )}
             </div>
         </div>
     );
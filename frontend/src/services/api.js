@@ -17,4 +17,13 @@ api.interceptors.request.use(
   }
 );
 
+// Profile changes that affect the token claims (role, name) come back with a fresh token
+api.interceptors.response.use((response) => {
+  const refreshedToken = response.headers["x-refreshed-token"];
+  if (refreshedToken) {
+    localStorage.setItem("token", refreshedToken);
+  }
+  return response;
+});
+
 export default api;
@@ -12,10 +12,29 @@ export const getChatMessages = (roomId) => {
     return api.get(`/chat/rooms/${roomId}/messages`);
 };
 
+// Paginated history: no cursor = newest page, before = older messages, after = newer messages
+export const getChatMessagesPage = (roomId, { before, after, size = 30 } = {}) => {
+    return api.get(`/chat/rooms/${roomId}/messages`, { params: { before, after, size } });
+};
+
 export const sendMessage = (roomId, messageData) => {
     return api.post(`/chat/rooms/${roomId}/messages`, messageData);
 };
 
+// Uploads a file to the room; send the returned id as attachmentId with the message
+export const uploadChatAttachment = (roomId, file) => {
+    const formData = new FormData();
+    formData.append("file", file);
+    return api.post(`/chat/rooms/${roomId}/attachments`, formData, {
+        headers: { "Content-Type": "multipart/form-data" },
+    });
+};
+
+// Attachment downloads need the auth header, so fetch them as a blob rather than a plain link
+export const downloadChatAttachment = (attachmentId) => {
+    return api.get(`/chat/attachments/${attachmentId}`, { responseType: "blob" });
+};
+
 export const markMessagesAsRead = (roomId) => {
     return api.put(`/chat/rooms/${roomId}/read`);
 };
@@ -27,3 +46,18 @@ export const getBuyerChatRooms = () => {
 
 
 
+
+// Merges a /user/queue/inbox delta into a room list from getChatRooms(), newest activity first.
+// Fields left null in the delta (read-only updates) keep their current value.
+export const applyInboxDelta = (rooms, delta) => {
+    const updated = rooms.map((room) =>
+        room.id === delta.chatRoomId
+            ? {
+                ...room,
+                unreadCount: delta.unreadCount,
+                lastMessageAt: delta.lastMessageAt ?? room.lastMessageAt,
+                lastMessagePreview: delta.preview ?? room.lastMessagePreview,
+            }
+            : room);
+    return updated.sort((a, b) => new Date(b.lastMessageAt || 0) - new Date(a.lastMessageAt || 0));
+};
@@ -33,6 +33,19 @@ export const browseProducts = (category = null, search = null) => {
     return api.get(`/products/browse${queryString ? `?${queryString}` : ""}`);
 };
 
+export const browseProductsPage = (category = null, search = null, cursor = null, size = 24) => {
+    const params = new URLSearchParams();
+    if (category) params.append("category", category);
+    if (search) params.append("search", search);
+    if (cursor) params.append("cursor", cursor);
+    params.append("size", size);
+    return api.get(`/products/browse?${params.toString()}`);
+};
+
+export const getBrowseCategories = () => {
+    return api.get("/products/browse/categories");
+};
+
 export const getProductDetails = (id) => {
     return api.get(`/products/${id}`);
 };
\ No newline at end of file